@@ -0,0 +1,51 @@
+package frc.diagnostics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decodes fault masks the way they come back from getFaults(), a short that may be negative.
+ * Needs no HAL, FaultDecoder only reads the REVLib FaultID enum.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FaultDecoderBenchmark {
+
+    private final short[] faults = new short[64];
+    private int next;
+
+    @Setup
+    public void setup() {
+        // mostly healthy motors, with a few faults and a sign extended mask
+        for (int i = 0; i < faults.length; i++) {
+            faults[i] = i % 8 == 0 ? (short) (1 << (i % 16)) : 0;
+        }
+        faults[faults.length - 1] = (short) 0x8001;
+    }
+
+    @Benchmark
+    public String getMessage() {
+        next = (next + 1) & (faults.length - 1);
+        return FaultDecoder.getMessage(faults[next]);
+    }
+
+    @Benchmark
+    public int toMask() {
+        next = (next + 1) & (faults.length - 1);
+        return FaultDecoder.toMask(faults[next]);
+    }
+}
@@ -0,0 +1,77 @@
+package frc.diagnostics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Drives 8, 32 and 128 SyntheticMotors through DiagnosticsNoLayout, which pages them 4 to a tab,
+ * and reports the time per full refresh.  Run with -prof gc for the allocation per refresh; the
+ * heap retained by the layout's widgets and tables is printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MotorScalingBenchmark {
+
+    @Param({ "8", "32", "128" })
+    public int motors;
+
+    /* spin per read to stand in for CAN latency, 0 measures the diagnostics alone, 20 us is about a SparkMax JNI read */
+    @Param({ "0", "20000" })
+    public long readLatencyNanos;
+
+    private MotorUpdate motorUpdate;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        SyntheticMotor[] sources = new SyntheticMotor[motors];
+        for (int i = 0; i < motors; i++) {
+            // every 8th motor drops a fault in and out (FaultID kBrownout)
+            sources[i] = new SyntheticMotor(i)
+                .withFaults(i % 8 == 0 ? 25 : 0, 0)
+                .withReadLatency(readLatencyNanos);
+        }
+
+        long before = usedHeap();
+        DiagnosticsNoLayout layout = new DiagnosticsNoLayout(sources);
+        layout.init();
+        WidgetBuilder.buildAll();
+        long retained = usedHeap() - before;
+        System.out.printf("%n%d motors: %d bytes retained by the layout (%d per motor)%n",
+            motors, retained, retained / motors);
+
+        motorUpdate = layout.getMotorUpdate();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /* every displayed value of every motor, sampled and published */
+    @Benchmark
+    public void refresh() {
+        motorUpdate.updateStatus();
+    }
+}
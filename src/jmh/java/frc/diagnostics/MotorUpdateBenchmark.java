@@ -0,0 +1,63 @@
+package frc.diagnostics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.hal.HAL;
+import frc.helpers.CCSparkMax;
+import frc.parent.MotorDef;
+
+/**
+ * Refreshes the robot's motors the way robotPeriodic() does, against simulated SparkMax controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MotorUpdateBenchmark {
+
+    private MotorUpdate motorUpdate;
+    private DiagnosticsNoLayout layout;
+    private int item;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        MotorDef[] defs = MotorDef.values();
+        CCSparkMax[] motors = new CCSparkMax[defs.length];
+        for (int i = 0; i < defs.length; i++) {
+            motors[i] = new CCSparkMax(defs[i]);
+        }
+
+        layout = new DiagnosticsNoLayout(motors);
+        layout.init();
+        WidgetBuilder.buildAll();
+        motorUpdate = layout.getMotorUpdate();
+    }
+
+    /* every displayed value of every motor, sampled and published */
+    @Benchmark
+    public void updateStatus() {
+        motorUpdate.updateStatus();
+    }
+
+    /* one RoundRobinScheduler work item */
+    @Benchmark
+    public void updateWorkItem() {
+        motorUpdate.updateWorkItem(item);
+        item = (item + 1) % motorUpdate.getWorkItemCount();
+    }
+}
@@ -0,0 +1,60 @@
+package frc.diagnostics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Refreshes the power distribution module against the simulated PDP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PowerStatusBenchmark {
+
+    private PowerStatus powerStatus;
+    private PowerSnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        powerStatus = new PowerStatus();
+        powerStatus.init();
+        WidgetBuilder.buildAll();
+        snapshot = powerStatus.newSnapshot();
+    }
+
+    /* every value and channel, sampled and published */
+    @Benchmark
+    public void updateStatus() {
+        powerStatus.updateStatus();
+    }
+
+    /* the bulk read of every channel current */
+    @Benchmark
+    public PowerSnapshot readChannelCurrents() {
+        powerStatus.readChannelCurrents(snapshot);
+        return snapshot;
+    }
+
+    /* what another thread pays to read the latest values */
+    @Benchmark
+    public long readSnapshot() {
+        return powerStatus.readSnapshot(snapshot);
+    }
+}
@@ -0,0 +1,109 @@
+package frc.diagnostics;
+
+/**
+ * SyntheticMotor is an in-memory MotorTelemetrySource for benchmarks.  Values move a little on
+ * every read, a fault bit can be made to come and go every so many reads, and every read can be
+ * made to spin for a while to stand in for the CAN/JNI latency of a real controller.
+ */
+public class SyntheticMotor implements MotorTelemetrySource {
+
+    private final String name;
+    private final String shortName;
+    private final int powerChannel;
+
+    private int faultPeriod;
+    private int faultBit;
+    private int stickyFaults;
+    private long readLatencyNanos;
+
+    private long reads;
+    private double position;
+
+    public SyntheticMotor(int index) {
+        this.name = "Synthetic " + index;
+        this.shortName = "S" + index;
+        this.powerChannel = index % PowerStatus.MAX_CHANNELS;
+    }
+
+    /**
+     * Sets the fault bit (a FaultID value) for faultPeriod reads of getFaults(), then clears it for
+     * as many, 0 for no faults.  A raised fault also becomes sticky.
+     */
+    public SyntheticMotor withFaults(int faultPeriod, int faultBit) {
+        this.faultPeriod = faultPeriod;
+        this.faultBit = faultBit;
+        return this;
+    }
+
+    /* how long every read spins */
+    public SyntheticMotor withReadLatency(long nanos) {
+        this.readLatencyNanos = nanos;
+        return this;
+    }
+
+    private void read() {
+        reads++;
+        if (readLatencyNanos > 0) {
+            long end = System.nanoTime() + readLatencyNanos;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getShortName() {
+        return shortName;
+    }
+
+    @Override
+    public short getFaults() {
+        read();
+        if (faultPeriod > 0 && (reads / faultPeriod) % 2 == 1) {
+            stickyFaults |= 1 << faultBit;
+            return (short) (1 << faultBit);
+        }
+        return 0;
+    }
+
+    @Override
+    public short getStickyFaults() {
+        read();
+        return (short) stickyFaults;
+    }
+
+    @Override
+    public double getMotorTemperature() {
+        read();
+        return 30 + (reads % 100) * 0.1;
+    }
+
+    @Override
+    public double getPosition() {
+        read();
+        position += 0.01;
+        return position;
+    }
+
+    @Override
+    public double getVelocity() {
+        read();
+        return (reads % 50) * 2.0;
+    }
+
+    @Override
+    public boolean getInverted() {
+        read();
+        return false;
+    }
+
+    @Override
+    public int getPowerChannel() {
+        return powerChannel;
+    }
+}
@@ -0,0 +1,66 @@
+package frc.helpers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Ticks hundreds of running timers, half of them with triggers, and restarts one per call.
+ * Timers are kept in a TimingWheel, so both should cost the same with 100 or 500 timers.
+ * The timers are set far enough out not to trigger during a trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerBenchmark {
+
+    @Param({ "100", "500" })
+    public int timers;
+
+    private int fired;
+    private Timer[] all;
+    private int next;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        LambdaRunner<TimerBenchmark, Integer> trigger = new LambdaRunner<>(this, 1, (target, value) -> target.fired += value);
+        all = new Timer[timers];
+        for (int i = 0; i < timers; i++) {
+            Timer t = i % 2 == 0 ? new Timer(1000.0 + i * 0.02) : new Timer(1000.0 + i * 0.02, trigger);
+            // a few stopped timers, like the ones waiting to be restarted
+            if (i % 10 != 0) {
+                t.start();
+            }
+            all[i] = t;
+        }
+    }
+
+    @Benchmark
+    public void tick() {
+        Timer.tick();
+    }
+
+    /* moves one timer's deadline */
+    @Benchmark
+    public void restart() {
+        all[next].reset();
+        next = (next + 1) % all.length;
+    }
+}
@@ -0,0 +1,47 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Clamps joystick-like values, a third of them out of range on each side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OIBenchmark {
+
+    private final double[] values = new double[1024];
+    private int next;
+
+    @Setup
+    public void setup() {
+        // OI creates its Joystick when the class is loaded
+        HAL.initialize(500, 0);
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i % 3 - 1) * 1.5 + (i % 7) * 0.1;
+        }
+    }
+
+    @Benchmark
+    public double normalize() {
+        next = (next + 1) & (values.length - 1);
+        return OI.normalize(values[next], -1, 1);
+    }
+}
@@ -0,0 +1,237 @@
+package frc.diagnostics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.helpers.CCSparkMax;
+import frc.helpers.StatusFrameManager;
+
+/**
+ * BlackBoxRecorder keeps the last few seconds of motor and power readings so the moments before a
+ * fault aren't lost.  record() samples every motor and every power distribution channel into
+ * preallocated primitive ring buffers each loop, without allocating.  When MotorUpdate reports a
+ * new fault, or the PDP voltage drops below the brownout threshold, the window is frozen into a
+ * second set of buffers and written to a CSV file in the blackbox directory on a background thread.
+ * The fault bitmask of a motor the FaultJournal polls is taken from the journal, which must be
+ * polled earlier in the same loop, so the motor's faults are only read once per loop.
+ */
+public class BlackBoxRecorder implements FaultListener {
+
+    /* values recorded per motor, in column order */
+    private static final String[] MOTOR_COLUMNS = { "current", "velocity", "temp", "output", "faults" };
+    private static final int NUM_MOTOR_COLUMNS = MOTOR_COLUMNS.length;
+
+    /* the voltage has to recover this far above the threshold before another brownout dump */
+    private static final double BROWNOUT_HYSTERESIS = 0.5;
+
+    private final CCSparkMax[] motors;
+    private final PowerStatus powerStatus;
+    private final PowerSnapshot power;
+    private final int numChannels;
+    private final double brownoutVoltage;
+
+    /* ring buffers, one row per sample */
+    private final int capacity;
+    private final int columns;
+    private final long[] timestamps;
+    private final double[] data;
+    private int head;
+    private int count;
+
+    /* the frozen window handed to the writer thread */
+    private final long[] frozenTimestamps;
+    private final double[] frozenData;
+    private int frozenCount;
+    private String frozenReason;
+    private volatile boolean dumpInProgress;
+
+    private final FaultJournal faultJournal;
+    /* the journal's index of each motor, -1 for motors it doesn't journal */
+    private final int[] journalIndex;
+
+    private final AtomicReference<String> triggerReason = new AtomicReference<>();
+    private boolean brownoutArmed = true;
+    private long dumpCount;
+    private long droppedTriggers;
+
+    private final File directory = new File(Filesystem.getOperatingDirectory(), "blackbox");
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Black Box Writer");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final Runnable writeTask = this::writeFrozen;
+
+    /**
+     * @param loopPeriod how often record() is called, in seconds
+     * @param windowSeconds how many seconds before the trigger are kept
+     * @param brownoutVoltage the PDP voltage that triggers a dump
+     * @param faultJournal where the fault bitmask of the motors it journals is taken from
+     * @param powerStatus the power distribution module to record
+     * @param motors the motors to record
+     */
+    public BlackBoxRecorder(double loopPeriod, double windowSeconds, double brownoutVoltage,
+        FaultJournal faultJournal, PowerStatus powerStatus, CCSparkMax... motors) {
+        this.motors = motors;
+        this.faultJournal = faultJournal;
+        this.journalIndex = new int[motors.length];
+        for (int i = 0; i < motors.length; i++) {
+            journalIndex[i] = faultJournal.indexOf(motors[i]);
+        }
+        this.powerStatus = powerStatus;
+        this.power = powerStatus.newSnapshot();
+        this.numChannels = powerStatus.getNumChannels();
+        this.brownoutVoltage = brownoutVoltage;
+
+        capacity = (int) Math.ceil(windowSeconds / loopPeriod);
+        // motor columns, then PDP voltage, total current and one column per channel
+        columns = motors.length * NUM_MOTOR_COLUMNS + 2 + numChannels;
+        timestamps = new long[capacity];
+        data = new double[capacity * columns];
+        frozenTimestamps = new long[capacity];
+        frozenData = new double[capacity * columns];
+    }
+
+    /* samples every motor and channel into the ring buffers, call once per robot loop */
+    public void record() {
+        int base = head * columns;
+        timestamps[head] = RobotController.getFPGATime();
+
+        int col = base;
+        for (int i = 0; i < motors.length; i++) {
+            CCSparkMax motor = motors[i];
+            data[col++] = motor.getOutputCurrent();
+            data[col++] = motor.getVelocity();
+            data[col++] = motor.getMotorTemperature();
+            data[col++] = motor.getAppliedOutput();
+            int journaled = journalIndex[i];
+            data[col++] = journaled >= 0 ? faultJournal.getFaults(journaled) : FaultDecoder.toMask(motor.getFaults());
+        }
+
+        // one bulk read for all the channels instead of one CAN lookup each
+        double voltage = powerStatus.readValue(PowerDataType.VOLTAGE);
+        data[col++] = voltage;
+        data[col++] = powerStatus.readValue(PowerDataType.CURRENT);
+        powerStatus.readChannelCurrents(power);
+        for (int channel = 0; channel < numChannels; channel++) {
+            data[col++] = power.getChannelCurrent(channel);
+        }
+
+        head = (head + 1) % capacity;
+        if (count < capacity) {
+            count++;
+        }
+
+        if (brownoutArmed && voltage < brownoutVoltage) {
+            brownoutArmed = false;
+            trigger("brownout");
+        } else if (voltage > brownoutVoltage + BROWNOUT_HYSTERESIS) {
+            brownoutArmed = true;
+        }
+
+        String reason = triggerReason.getAndSet(null);
+        if (reason != null) {
+            freeze(reason);
+        }
+    }
+
+    /* record() reads output current, velocity and temperature (kStatus1), applied output and faults (kStatus0) every loop */
+    public void requireStatusFrames(StatusFrameManager frames, double loopPeriod) {
+        int periodMs = (int) Math.round(loopPeriod * 1000);
+        for (CCSparkMax motor : motors) {
+            frames.requireTelemetry(motor, PeriodicFrame.kStatus0, periodMs);
+            frames.requireTelemetry(motor, PeriodicFrame.kStatus1, periodMs);
+        }
+    }
+
+    /* asks for the current window to be dumped at the end of the next record(), safe to call from any thread */
+    public void trigger(String reason) {
+        triggerReason.compareAndSet(null, reason);
+    }
+
+    @Override
+    public void onNewFault(MotorTelemetrySource motor, int newFaults) {
+        trigger(motor.getShortName() + " " + FaultDecoder.getMessage(newFaults));
+    }
+
+    /* the number of windows written to disk */
+    public long getDumpCount() {
+        return dumpCount;
+    }
+
+    /* the number of triggers ignored because the previous window was still being written */
+    public long getDroppedTriggers() {
+        return droppedTriggers;
+    }
+
+    private void freeze(String reason) {
+        if (dumpInProgress) {
+            droppedTriggers++;
+            return;
+        }
+
+        // unroll the ring so the frozen window starts with the oldest sample
+        int start = (head - count + capacity) % capacity;
+        for (int i = 0; i < count; i++) {
+            int row = (start + i) % capacity;
+            frozenTimestamps[i] = timestamps[row];
+            System.arraycopy(data, row * columns, frozenData, i * columns, columns);
+        }
+        frozenCount = count;
+        frozenReason = reason;
+        dumpCount++;
+
+        dumpInProgress = true;
+        writer.execute(writeTask);
+    }
+
+    private void writeFrozen() {
+        try {
+            directory.mkdirs();
+            String name = String.format("blackbox-%d-%s.csv", frozenTimestamps[Math.max(0, frozenCount - 1)],
+                frozenReason.replaceAll("[^A-Za-z0-9]+", "_"));
+            try (BufferedWriter out = new BufferedWriter(new FileWriter(new File(directory, name)))) {
+                out.write("# " + frozenReason);
+                out.newLine();
+                out.write(header());
+                out.newLine();
+                for (int i = 0; i < frozenCount; i++) {
+                    out.write(Long.toString(frozenTimestamps[i]));
+                    for (int c = 0; c < columns; c++) {
+                        out.write(',');
+                        out.write(Double.toString(frozenData[i * columns + c]));
+                    }
+                    out.newLine();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Black box: unable to write dump: " + e);
+        } finally {
+            dumpInProgress = false;
+        }
+    }
+
+    private String header() {
+        StringBuilder sb = new StringBuilder("fpga_time_us");
+        for (CCSparkMax motor : motors) {
+            for (String column : MOTOR_COLUMNS) {
+                sb.append(',').append(motor.getShortName()).append('_').append(column);
+            }
+        }
+        sb.append(",pdp_voltage,pdp_total_current");
+        for (int channel = 0; channel < numChannels; channel++) {
+            sb.append(",channel_").append(channel);
+        }
+        return sb.toString();
+    }
+}
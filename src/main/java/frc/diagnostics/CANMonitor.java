@@ -0,0 +1,211 @@
+package frc.diagnostics;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import edu.wpi.first.hal.can.CANJNI;
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import frc.helpers.StatusFrameManager;
+
+/**
+ * CANMonitor watches the CAN bus and throttles the diagnostics when it gets busy.  poll() reads the
+ * bus utilization, TX/RX error counts and bus-off count every loop; updateStatus() publishes them
+ * on the "Power" tab.  When the smoothed utilization goes over reducedUtilization, or over
+ * minimalUtilization, the throttled diagnostics and the StatusFrameManager are slowed down by the
+ * factor of that Level, and a bus-off goes straight to MINIMAL.  The level only drops back once the
+ * utilization has stayed HYSTERESIS below the threshold for RECOVER_NANOS.  Throttling only touches
+ * what the diagnostics read: the FAULTS items, and the status frames the control code asked for
+ * with StatusFrameManager.require(), keep their rate.
+ */
+public class CANMonitor implements DiagnosticsIF {
+
+    public enum Level {
+        NORMAL(1), REDUCED(2), MINIMAL(10);
+
+        private final int factor;
+
+        Level(int factor) {
+            this.factor = factor;
+        }
+
+        /* how much slower the non-essential diagnostics run */
+        public int getFactor() {
+            return factor;
+        }
+    }
+
+    /* how far below a threshold the utilization has to drop before the level goes back down */
+    public static final double HYSTERESIS = 0.1;
+    public static final long RECOVER_NANOS = 2_000_000_000L;
+    /* weight of the newest utilization sample, the bus utilization jumps around from loop to loop */
+    private static final double SMOOTHING = 0.2;
+
+    private final ShuffleboardTab powerTab = Shuffleboard.getTab("Power");
+    private TelemetryEntry utilizationEntry;
+    private TelemetryEntry txErrorEntry;
+    private TelemetryEntry rxErrorEntry;
+    private TelemetryEntry busOffEntry;
+    private TelemetryEntry levelEntry;
+
+    private final double reducedUtilization;
+    private final double minimalUtilization;
+
+    /* reused by every poll(), RobotController.getCANStatus() allocates a new one per call */
+    private final CANStatus status = new CANStatus();
+    private double smoothedUtilization;
+    private int lastBusOffCount = -1;
+    private long belowSince;
+
+    private DiagnosticsIF[] throttled = new DiagnosticsIF[0];
+    private StatusFrameManager statusFrames;
+
+    /* written by poll() in the robot loop, published by updateStatus() which may run on the sampler thread */
+    private volatile double utilization;
+    private volatile int txErrors;
+    private volatile int rxErrors;
+    private volatile int busOffCount;
+    private volatile Level level = Level.NORMAL;
+
+    /**
+     * @param reducedUtilization the bus utilization, between 0 and 1, above which the diagnostics are REDUCED
+     * @param minimalUtilization the bus utilization above which the diagnostics are MINIMAL
+     */
+    public CANMonitor(double reducedUtilization, double minimalUtilization) {
+        this.reducedUtilization = reducedUtilization;
+        this.minimalUtilization = Math.max(reducedUtilization, minimalUtilization);
+    }
+
+    /* diagnostics slowed down with setThrottle() when the bus is busy */
+    public void addThrottled(DiagnosticsIF diagnostics) {
+        throttled = Arrays.copyOf(throttled, throttled.length + 1);
+        throttled[throttled.length - 1] = diagnostics;
+    }
+
+    /* the status frame periods slowed down when the bus is busy */
+    public void setStatusFrames(StatusFrameManager statusFrames) {
+        this.statusFrames = statusFrames;
+    }
+
+    @Override
+    public void init() {
+        String title = powerTab.getTitle();
+        WidgetBuilder.add(title, () ->
+            utilizationEntry = new TelemetryEntry(powerTab.add("CAN Utilization", 0)
+                .withWidget(BuiltInWidgets.kNumberBar)
+                .withProperties(Map.of("Min", 0, "Max", 100))
+                .getEntry(), 0.5));
+        WidgetBuilder.add(title, () -> txErrorEntry = textView("CAN TX Errors", 0));
+        WidgetBuilder.add(title, () -> rxErrorEntry = textView("CAN RX Errors", 0));
+        WidgetBuilder.add(title, () -> busOffEntry = textView("CAN Bus Off", 0));
+        WidgetBuilder.add(title, () -> levelEntry = textView("CAN Throttle", Level.NORMAL.name()));
+    }
+
+    private TelemetryEntry textView(String label, Object defaultValue) {
+        NetworkTableEntry entry = powerTab.add(label, defaultValue)
+            .withWidget(BuiltInWidgets.kTextView)
+            .getEntry();
+        return new TelemetryEntry(entry, 0);
+    }
+
+    /* reads the CAN status and changes the throttle level if needed, call once per robot loop */
+    public void poll() {
+        CANJNI.GetCANStatus(status);
+        long now = System.nanoTime();
+
+        smoothedUtilization += SMOOTHING * (status.percentBusUtilization - smoothedUtilization);
+        utilization = smoothedUtilization;
+        txErrors = status.transmitErrorCount;
+        rxErrors = status.receiveErrorCount;
+        busOffCount = status.busOffCount;
+
+        boolean busOff = lastBusOffCount >= 0 && status.busOffCount > lastBusOffCount;
+        lastBusOffCount = status.busOffCount;
+
+        Level target = Level.NORMAL;
+        if (busOff || smoothedUtilization > minimalUtilization) {
+            target = Level.MINIMAL;
+        } else if (smoothedUtilization > reducedUtilization) {
+            target = Level.REDUCED;
+        }
+
+        Level current = level;
+        if (target.compareTo(current) > 0) {
+            // busier, throttle right away
+            setLevel(target);
+            belowSince = now;
+        } else if (smoothedUtilization > getThreshold(current) - HYSTERESIS) {
+            belowSince = now;
+        } else if (now - belowSince >= RECOVER_NANOS) {
+            // quiet for long enough, one level at a time
+            setLevel(Level.values()[current.ordinal() - 1]);
+            belowSince = now;
+        }
+    }
+
+    /* the utilization that moves the diagnostics up to level */
+    private double getThreshold(Level level) {
+        switch (level) {
+            case MINIMAL:
+                return minimalUtilization;
+            case REDUCED:
+                return reducedUtilization;
+            default:
+                return Double.MAX_VALUE;
+        }
+    }
+
+    private void setLevel(Level next) {
+        System.out.printf("CAN monitor: %.0f%% bus utilization, diagnostics %s -> %s%n",
+            smoothedUtilization * 100, level, next);
+        level = next;
+        for (DiagnosticsIF d : throttled) {
+            d.setThrottle(next.getFactor());
+        }
+        if (statusFrames != null) {
+            statusFrames.setThrottle(next.getFactor());
+        }
+    }
+
+    @Override
+    public void updateStatus() {
+        TelemetryEntry entry = utilizationEntry;
+        if (entry != null) {
+            entry.setDouble(utilization * 100);
+        }
+        entry = txErrorEntry;
+        if (entry != null) {
+            entry.setDouble(txErrors);
+        }
+        entry = rxErrorEntry;
+        if (entry != null) {
+            entry.setDouble(rxErrors);
+        }
+        entry = busOffEntry;
+        if (entry != null) {
+            entry.setDouble(busOffCount);
+        }
+        entry = levelEntry;
+        if (entry != null) {
+            entry.setString(level.name());
+        }
+    }
+
+    /* the CAN status is still published while the rest of the diagnostics are throttled */
+    @Override
+    public boolean isEssentialWorkItem(int index) {
+        return true;
+    }
+
+    /* the smoothed bus utilization, between 0 and 1 */
+    public double getUtilization() {
+        return utilization;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+}
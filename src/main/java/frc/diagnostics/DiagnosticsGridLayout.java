@@ -1,6 +1,5 @@
 package frc.diagnostics;
 
-import frc.helpers.CCSparkMax;
 import static frc.diagnostics.MotorDataType.*;
 
 import java.util.Arrays;
@@ -21,10 +20,10 @@ import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardLayout;
  * the motors
  * and power distribution panel.
  */
-public class DiagnosticsGridLayout implements DiagnosticsIF {
+public class DiagnosticsGridLayout implements MotorLayout {
 
     /* define the set of MotorDataType data to display */
-    private MotorDataType[] displayedData = { FAULTS, STICKY_FAULTS, INVERTED_STATE, TEMP, POSITION, VELOCITY };
+    private MotorDataType[] displayedData = { FAULTS, STICKY_FAULTS, INVERTED_STATE, TEMP, POSITION, VELOCITY, PDP_CURRENT };
 
     /* Define tabs in the shuffleboard */
     private final ShuffleboardTab summaryTab = Shuffleboard.getTab("Summary");
@@ -38,7 +37,7 @@ public class DiagnosticsGridLayout implements DiagnosticsIF {
     private NetworkTableEntry faultEntry;
 
     /* stores a list of the motors */
-    private List<CCSparkMax> motors;
+    private List<MotorTelemetrySource> motors;
 
     /*
      * The motorEntryMap allows us to map a motor name to a NetworkTableEntry. See
@@ -49,9 +48,10 @@ public class DiagnosticsGridLayout implements DiagnosticsIF {
     private Map<String, Map<MotorDataType, NetworkTableEntry>> motorEntryMap = new HashMap<>();
 
     private MotorUpdate motorUpdate;
+    private PowerStatus powerStatus;
 
     /* contructor, saves the injected motors */
-    public DiagnosticsGridLayout(CCSparkMax... motors) {
+    public DiagnosticsGridLayout(MotorTelemetrySource... motors) {
         this.motors = Arrays.asList(motors);
     }
 
@@ -70,41 +70,54 @@ public class DiagnosticsGridLayout implements DiagnosticsIF {
     @Override
     public void init() {
 
-        faultEntry = summaryTab
-                .add("Grid Fault Indicator", false)
-                .withWidget(BuiltInWidgets.kBooleanBox)
-                .getEntry();
+        motorUpdate = new MotorUpdate(motorEntryMap, motors, null, displayedData );
+        motorUpdate.setPowerStatus(powerStatus);
 
-        motorUpdate = new MotorUpdate(motorEntryMap, motors, faultEntry, displayedData );
+        // the widgets are created later by WidgetBuilder, one motor's grid at a time
+        WidgetBuilder.add(summaryTab.getTitle(), () -> {
+            faultEntry = summaryTab
+                    .add("Grid Fault Indicator", false)
+                    .withWidget(BuiltInWidgets.kBooleanBox)
+                    .getEntry();
+            motorUpdate.setFaultEntry(faultEntry);
+        });
 
         // for each motor: Faults, Sticky Faults, Temp, Inverted state, position,
         // velocity
         int layoutRow =0;
-        for (CCSparkMax m : motors) {
-            int col=0;
+        for (int i = 0; i < motors.size(); i++) {
+            MotorTelemetrySource m = motors.get(i);
             Map<MotorDataType, NetworkTableEntry> entryMap = new EnumMap<>(MotorDataType.class);
 
             // initialize motorEntryMap
             motorEntryMap.put(m.getName(), entryMap);
 
-            // create the layout
-            ShuffleboardLayout motorLayout = motorTab
-                    .getLayout(m.getName(), BuiltInLayouts.kGrid)
-                    .withSize(9, 1)
-                    .withPosition(0, layoutRow++)
-                    .withProperties(Map.of(
-                            "Label position", "LEFT",
-                            "Number of Columns", displayedData.length, // defines how many widgets in a row
-                            "Number of Rows", 1));
-
-            // create the widgets for each displayed MotorDataType
-            for (MotorDataType md : displayedData) {
-                entryMap.put(md, motorLayout.add(md.getLabel(), md.getDefaultValue())
-                        .withWidget(md.getWidgetType())
-                        .withPosition(col++, 0)
-                        .withProperties(md.getProperties())
-                        .getEntry());
-            }
+            final int index = i;
+            final int row = layoutRow++;
+            WidgetBuilder.add(motorTab.getTitle(), () -> {
+                int col=0;
+
+                // create the layout
+                ShuffleboardLayout motorLayout = motorTab
+                        .getLayout(m.getName(), BuiltInLayouts.kGrid)
+                        .withSize(9, 1)
+                        .withPosition(0, row)
+                        .withProperties(Map.of(
+                                "Label position", "LEFT",
+                                "Number of Columns", displayedData.length, // defines how many widgets in a row
+                                "Number of Rows", 1));
+
+                // create the widgets for each displayed MotorDataType
+                for (MotorDataType md : displayedData) {
+                    NetworkTableEntry entry = motorLayout.add(md.getLabel(), md.getDefaultValue())
+                            .withWidget(md.getWidgetType())
+                            .withPosition(col++, 0)
+                            .withProperties(md.getProperties())
+                            .getEntry();
+                    entryMap.put(md, entry);
+                    motorUpdate.setEntry(index, md, entry);
+                }
+            });
         }
 
         Shuffleboard.selectTab("Motors Grid");
@@ -114,4 +127,41 @@ public class DiagnosticsGridLayout implements DiagnosticsIF {
     public void updateStatus() {
         motorUpdate.updateStatus();
     }
+
+    /* where the PDP_CURRENT of each motor is read from, call before init() */
+    @Override
+    public void setPowerStatus(PowerStatus powerStatus) {
+        this.powerStatus = powerStatus;
+    }
+
+    /* null until init() has run */
+    @Override
+    public MotorUpdate getMotorUpdate() {
+        return motorUpdate;
+    }
+
+    @Override
+    public int getWorkItemCount() {
+        return motorUpdate.getWorkItemCount();
+    }
+
+    @Override
+    public void updateWorkItem(int index) {
+        motorUpdate.updateWorkItem(index);
+    }
+
+    @Override
+    public int getWorkItemPeriod(int index) {
+        return motorUpdate.getWorkItemPeriod(index);
+    }
+
+    @Override
+    public boolean isEssentialWorkItem(int index) {
+        return motorUpdate.isEssentialWorkItem(index);
+    }
+
+    @Override
+    public void flush() {
+        motorUpdate.flush();
+    }
 }
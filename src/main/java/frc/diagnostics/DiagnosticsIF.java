@@ -5,4 +5,36 @@ public interface DiagnosticsIF {
     void init();
 
     void updateStatus();
+
+    /* the number of independent pieces of work updateStatus() can be split into, see RoundRobinScheduler */
+    default int getWorkItemCount() {
+        return 1;
+    }
+
+    /* refreshes a single piece of work, index is between 0 and getWorkItemCount() - 1 */
+    default void updateWorkItem(int index) {
+        updateStatus();
+    }
+
+    /* how often a work item is refreshed in milliseconds, 0 for the scheduler's refresh period or RoundRobinScheduler.RUN_ONCE */
+    default int getWorkItemPeriod(int index) {
+        return 0;
+    }
+
+    /* whether a work item keeps its period while the refresh is throttled, see setThrottle() */
+    default boolean isEssentialWorkItem(int index) {
+        return false;
+    }
+
+    /* slows the refresh of the work items that aren't essential down by factor, 1 for the full rate */
+    default void setThrottle(int factor) {
+    }
+
+    /* re-reads the period of every work item after they were changed, see DiagnosticsProfiles */
+    default void reschedule() {
+    }
+
+    /* called once at the end of a scheduler cycle in which any of the work items were refreshed */
+    default void flush() {
+    }
 }
@@ -12,18 +12,17 @@ import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
-import frc.helpers.CCSparkMax;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInLayouts;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardLayout;
 /**
  * Diagnostics defines some tabs in the shuffleboard to display diagnostics for the motors 
  * and power distribution panel.
  */
-public class DiagnosticsListLayout implements DiagnosticsIF {
+public class DiagnosticsListLayout implements MotorLayout {
  
     /* DataType defines the motor attributes to monitor.  The values here are a sample set. 
        Update this enumeration to define attributes you care about. */
-    private MotorDataType[] displayedData = { FAULTS, STICKY_FAULTS, TEMP, INVERTED_STATE, POSITION, VELOCITY };
+    private MotorDataType[] displayedData = { FAULTS, STICKY_FAULTS, TEMP, INVERTED_STATE, POSITION, VELOCITY, PDP_CURRENT };
 
     /* Define tabs in the shuffleboard */
     private final ShuffleboardTab summaryTab = Shuffleboard.getTab("Summary");
@@ -34,7 +33,7 @@ public class DiagnosticsListLayout implements DiagnosticsIF {
     private NetworkTableEntry faultEntry;
     
     /* stores a list of the motors */
-    private List<CCSparkMax> motors;
+    private List<MotorTelemetrySource> motors;
 
     /* The motorEntryMap allows us to map a motor name to a NetworkTableEntry.  See the getEntry() method on how
        to use motorEntryMap.  */
@@ -42,9 +41,10 @@ public class DiagnosticsListLayout implements DiagnosticsIF {
     private Map<String, Map<MotorDataType, NetworkTableEntry>> motorEntryMap = new HashMap<>();
 
     private MotorUpdate motorUpdate;
+    private PowerStatus powerStatus;
 
     /* contructor, saves the injected motors */
-    public DiagnosticsListLayout(CCSparkMax... motors) {
+    public DiagnosticsListLayout(MotorTelemetrySource... motors) {
         this.motors = Arrays.asList(motors);
     }
 
@@ -55,41 +55,53 @@ public class DiagnosticsListLayout implements DiagnosticsIF {
        PowerDataType enumerations.  For Current, it displays current for the first 8 channels. */
     @Override
     public void init() {
-        
-        faultEntry = summaryTab
-          .add("List Fault Indicator", false)
-          .withWidget(BuiltInWidgets.kBooleanBox)
-          .getEntry();
 
-        motorUpdate = new MotorUpdate(motorEntryMap, motors, faultEntry, displayedData );
+        motorUpdate = new MotorUpdate(motorEntryMap, motors, null, displayedData );
+        motorUpdate.setPowerStatus(powerStatus);
+
+        // the widgets are created later by WidgetBuilder, one motor's list at a time
+        WidgetBuilder.add(summaryTab.getTitle(), () -> {
+            faultEntry = summaryTab
+              .add("List Fault Indicator", false)
+              .withWidget(BuiltInWidgets.kBooleanBox)
+              .getEntry();
+            motorUpdate.setFaultEntry(faultEntry);
+        });
 
         int col = 0;
 
         // for each motor: Faults, Sticky Faults, Temp, Inverted state, position, velocity
-        for(CCSparkMax m : motors) {
+        for (int i = 0; i < motors.size(); i++) {
+            MotorTelemetrySource m = motors.get(i);
             
             Map<MotorDataType, NetworkTableEntry> entryMap = new EnumMap<>(MotorDataType.class);
 
             // initialize motorEntryMap
             motorEntryMap.put(m.getName(), entryMap);
 
-            ShuffleboardLayout motorLayout = motorTab
-                .getLayout(m.getName(), BuiltInLayouts.kList)
-                .withSize(2, 4) // height can't be more than number of visible rows in shuffleboard
-                .withPosition(col, 0)
-                .withProperties(Map.of("Label position", "TOP"));
-            
-            // create the widgets for each displayed MotorDataType
-            for (MotorDataType md : displayedData) {
-                entryMap.put(md, motorLayout.add(md.getLabel(), md.getDefaultValue())
-                        .withWidget(md.getWidgetType())
-                        // .withPosition(0, r++)
-                        .withProperties(md.getProperties())
-                        .getEntry());
-            }
+            final int index = i;
+            final int layoutCol = col;
+            WidgetBuilder.add(motorTab.getTitle(), () -> {
+                ShuffleboardLayout motorLayout = motorTab
+                    .getLayout(m.getName(), BuiltInLayouts.kList)
+                    .withSize(2, 4) // height can't be more than number of visible rows in shuffleboard
+                    .withPosition(layoutCol, 0)
+                    .withProperties(Map.of("Label position", "TOP"));
+                
+                // create the widgets for each displayed MotorDataType
+                for (MotorDataType md : displayedData) {
+                    NetworkTableEntry entry = motorLayout.add(md.getLabel(), md.getDefaultValue())
+                            .withWidget(md.getWidgetType())
+                            // .withPosition(0, r++)
+                            .withProperties(md.getProperties())
+                            .getEntry();
+                    entryMap.put(md, entry);
+                    motorUpdate.setEntry(index, md, entry);
+                }
+            });
            col += 2;
         }
-        
+
         Shuffleboard.selectTab("Motors List");
     }
    
@@ -97,4 +109,41 @@ public class DiagnosticsListLayout implements DiagnosticsIF {
     public void updateStatus() {
        motorUpdate.updateStatus();
     }
+
+    /* where the PDP_CURRENT of each motor is read from, call before init() */
+    @Override
+    public void setPowerStatus(PowerStatus powerStatus) {
+        this.powerStatus = powerStatus;
+    }
+
+    /* null until init() has run */
+    @Override
+    public MotorUpdate getMotorUpdate() {
+        return motorUpdate;
+    }
+
+    @Override
+    public int getWorkItemCount() {
+        return motorUpdate.getWorkItemCount();
+    }
+
+    @Override
+    public void updateWorkItem(int index) {
+        motorUpdate.updateWorkItem(index);
+    }
+
+    @Override
+    public int getWorkItemPeriod(int index) {
+        return motorUpdate.getWorkItemPeriod(index);
+    }
+
+    @Override
+    public boolean isEssentialWorkItem(int index) {
+        return motorUpdate.isEssentialWorkItem(index);
+    }
+
+    @Override
+    public void flush() {
+        motorUpdate.flush();
+    }
 }
@@ -13,13 +13,12 @@ import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
-import frc.helpers.CCSparkMax;
 /**
  * DiagnosticsNoLayout does not use any tab layouts, just plain row, col positions.
   */
-public class DiagnosticsNoLayout implements DiagnosticsIF {
+public class DiagnosticsNoLayout implements MotorLayout {
 
-    private MotorDataType[] displayedData = {FAULTS, STICKY_FAULTS, TEMP, INVERTED_STATE, POSITION, VELOCITY};
+    private MotorDataType[] displayedData = {FAULTS, STICKY_FAULTS, TEMP, INVERTED_STATE, POSITION, VELOCITY, PDP_CURRENT};
     enum PowerDataType {VOLTAGE, TEMP, CURRENT, ENERGY };
     private final ShuffleboardTab summaryTab = Shuffleboard.getTab("Summary");
     private final int rowsPerPage = 4;
@@ -29,35 +28,42 @@ public class DiagnosticsNoLayout implements DiagnosticsIF {
     private ShuffleboardTab motorTab;
     private NetworkTableEntry faultEntry;
     
-    private List<CCSparkMax> motors;
+    private List<MotorTelemetrySource> motors;
 
     // key -> motor name, value -> map (key -> DataType, value -> NetworkTableEntry)
     private Map<String, Map<MotorDataType, NetworkTableEntry>> motorEntryMap = new HashMap<>();
 
     private MotorUpdate motorUpdate;
+    private PowerStatus powerStatus;
 
-    public DiagnosticsNoLayout(CCSparkMax... motors) {
+    public DiagnosticsNoLayout(MotorTelemetrySource... motors) {
         this.motors = Arrays.asList(motors);
     }
 
-    public DiagnosticsNoLayout(List<CCSparkMax> motors) {
+    public DiagnosticsNoLayout(List<MotorTelemetrySource> motors) {
         this.motors = motors;
     }
 
+    /* the widgets are only queued here and created by WidgetBuilder, they are published once they exist */
     @Override
     public void init() {
-        
-        faultEntry = summaryTab
-          .add("Fault Indicator", false)
-          .withWidget(BuiltInWidgets.kBooleanBox)
-          .getEntry();
 
-        motorUpdate = new MotorUpdate(motorEntryMap, motors, faultEntry, displayedData );
+        motorUpdate = new MotorUpdate(motorEntryMap, motors, null, displayedData );
+        motorUpdate.setPowerStatus(powerStatus);
+
+        WidgetBuilder.add(summaryTab.getTitle(), () -> {
+            faultEntry = summaryTab
+              .add("Fault Indicator", false)
+              .withWidget(BuiltInWidgets.kBooleanBox)
+              .getEntry();
+            motorUpdate.setFaultEntry(faultEntry);
+        });
 
         int row = 0;
         
         // for each motor: Faults, Sticky Faults, Temp, Inverted state, position, velocity
-        for(CCSparkMax m : motors) {
+        for (int i = 0; i < motors.size(); i++) {
+            MotorTelemetrySource m = motors.get(i);
 
             if (totalRows++ % rowsPerPage == 0) {
                 motorTab = Shuffleboard.getTab("Motors " + ((totalRows/rowsPerPage) + 1));
@@ -71,16 +77,24 @@ public class DiagnosticsNoLayout implements DiagnosticsIF {
             motorEntryMap.put(m.getName(), entryMap);
 
             final String shortName = m.getShortName();
+            final ShuffleboardTab tab = motorTab;
+            final int index = i;
 
             for (MotorDataType md : displayedData) {
                 int width = md.getWidth();
                 String widgetName = shortName + " " + md.getLabel();
-                entryMap.put(md, motorTab.add(widgetName, md.getDefaultValue())
-                .withWidget(md.getWidgetType())
-                .withPosition(col, row) 
-                .withSize(width, 1)
-                .withProperties(md.getProperties())
-                .getEntry() ); 
+                final int widgetCol = col;
+                final int widgetRow = row;
+                WidgetBuilder.add(tab.getTitle(), () -> {
+                    NetworkTableEntry entry = tab.add(widgetName, md.getDefaultValue())
+                    .withWidget(md.getWidgetType())
+                    .withPosition(widgetCol, widgetRow) 
+                    .withSize(width, 1)
+                    .withProperties(md.getProperties())
+                    .getEntry();
+                    entryMap.put(md, entry);
+                    motorUpdate.setEntry(index, md, entry);
+                });
                 col += width;   
             }
             row++;
@@ -96,4 +110,41 @@ public class DiagnosticsNoLayout implements DiagnosticsIF {
     public void updateStatus() {
         motorUpdate.updateStatus();
     }
+
+    /* where the PDP_CURRENT of each motor is read from, call before init() */
+    @Override
+    public void setPowerStatus(PowerStatus powerStatus) {
+        this.powerStatus = powerStatus;
+    }
+
+    /* null until init() has run */
+    @Override
+    public MotorUpdate getMotorUpdate() {
+        return motorUpdate;
+    }
+
+    @Override
+    public int getWorkItemCount() {
+        return motorUpdate.getWorkItemCount();
+    }
+
+    @Override
+    public void updateWorkItem(int index) {
+        motorUpdate.updateWorkItem(index);
+    }
+
+    @Override
+    public int getWorkItemPeriod(int index) {
+        return motorUpdate.getWorkItemPeriod(index);
+    }
+
+    @Override
+    public boolean isEssentialWorkItem(int index) {
+        return motorUpdate.isEssentialWorkItem(index);
+    }
+
+    @Override
+    public void flush() {
+        motorUpdate.flush();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package frc.diagnostics;
+
+import java.util.Arrays;
+
+/**
+ * A named set of diagnostics: which layout shows them, which motors are sampled and which
+ * MotorDataTypes at what rate.  Nothing is sampled until sample() or sampleAll() is called,
+ * except FAULTS, which MotorUpdate always samples.  See DiagnosticsProfiles.
+ */
+public class DiagnosticsProfile {
+
+    private final String name;
+    private final Class<? extends MotorLayout> layout;
+    private final MotorTelemetrySource[] motors;
+    /* indexed by MotorDataType ordinal */
+    private final int[] periods = new int[MotorDataType.values().length];
+
+    /**
+     * @param name shown in the dashboard chooser
+     * @param layout the layout class, profiles with the same layout class share one instance and its widgets
+     * @param motors the motors sampled while the profile is active
+     */
+    public DiagnosticsProfile(String name, Class<? extends MotorLayout> layout, MotorTelemetrySource... motors) {
+        this.name = name;
+        this.layout = layout;
+        this.motors = motors;
+        Arrays.fill(periods, RoundRobinScheduler.DISABLED);
+    }
+
+    /* samples type every periodMs, 0 for the diagnostics refresh period */
+    public DiagnosticsProfile sample(MotorDataType type, int periodMs) {
+        periods[type.ordinal()] = periodMs;
+        return this;
+    }
+
+    /* samples every MotorDataType every periodMs, the ones that are only read once are still read once */
+    public DiagnosticsProfile sampleAll(int periodMs) {
+        for (MotorDataType type : MotorDataType.values()) {
+            periods[type.ordinal()] = type.getPeriodMs() == RoundRobinScheduler.RUN_ONCE ? RoundRobinScheduler.RUN_ONCE : periodMs;
+        }
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<? extends MotorLayout> getLayout() {
+        return layout;
+    }
+
+    public MotorTelemetrySource[] getMotors() {
+        return motors.clone();
+    }
+
+    public boolean includes(MotorTelemetrySource motor) {
+        for (MotorTelemetrySource m : motors) {
+            if (m == motor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* the period in ms of type, RoundRobinScheduler.DISABLED if it isn't sampled */
+    public int getPeriod(MotorDataType type) {
+        return periods[type.ordinal()];
+    }
+
+    /* the periods indexed by MotorDataType ordinal, as MotorUpdate.setSampling() takes them */
+    public int[] getPeriods() {
+        return periods.clone();
+    }
+}
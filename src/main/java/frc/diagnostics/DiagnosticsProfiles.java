@@ -0,0 +1,260 @@
+package frc.diagnostics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import frc.helpers.CCSparkMax;
+import frc.helpers.StatusFrameManager;
+
+/**
+ * DiagnosticsProfiles switches between DiagnosticsProfiles at runtime.  Every layout used by any
+ * profile is created and initialized up front, so its widgets are built by WidgetBuilder like any
+ * other; switching only changes what the layouts' MotorUpdates sample, through setSampling(), and
+ * asks the scheduler to re-read the periods.  The work items of the layouts that aren't active are
+ * DISABLED.  The profile is picked from the "Diagnostics Profile" chooser on the Summary tab, or
+ * with "Auto" from DriverStation.isFMSAttached(): the match profile with the FMS, the pit profile
+ * without.  The choice is checked once per refresh period.
+ */
+public class DiagnosticsProfiles implements DiagnosticsIF {
+
+    private final ShuffleboardTab summaryTab = Shuffleboard.getTab("Summary");
+    private TelemetryEntry activeEntry;
+
+    private final DiagnosticsProfile pitProfile;
+    private final DiagnosticsProfile matchProfile;
+    private final List<DiagnosticsProfile> profiles = new ArrayList<>();
+    /* "Auto" selects null */
+    private final SendableChooser<DiagnosticsProfile> chooser = new SendableChooser<>();
+
+    /* one layout per layout class, over the motors of every profile using it */
+    private final Map<Class<? extends MotorLayout>, MotorLayout> layouts = new LinkedHashMap<>();
+    private MotorLayout[] layoutArray;
+    /* the first work item of each layout, item 0 checks the chooser */
+    private int[] itemOffset;
+    private int itemCount;
+
+    private DiagnosticsIF scheduler;
+    private volatile DiagnosticsProfile active;
+    private volatile MotorLayout activeLayout;
+
+    /**
+     * @param pitProfile the profile used without the FMS
+     * @param matchProfile the profile used with the FMS
+     * @param others more profiles, only selected from the chooser
+     */
+    public DiagnosticsProfiles(DiagnosticsProfile pitProfile, DiagnosticsProfile matchProfile, DiagnosticsProfile... others) {
+        this.pitProfile = pitProfile;
+        this.matchProfile = matchProfile;
+        profiles.add(pitProfile);
+        profiles.add(matchProfile);
+        profiles.addAll(List.of(others));
+
+        Map<Class<? extends MotorLayout>, List<MotorTelemetrySource>> layoutMotors = new LinkedHashMap<>();
+        for (DiagnosticsProfile profile : profiles) {
+            List<MotorTelemetrySource> motors = layoutMotors.computeIfAbsent(profile.getLayout(), l -> new ArrayList<>());
+            for (MotorTelemetrySource motor : profile.getMotors()) {
+                if (!motors.contains(motor)) {
+                    motors.add(motor);
+                }
+            }
+        }
+        for (Map.Entry<Class<? extends MotorLayout>, List<MotorTelemetrySource>> entry : layoutMotors.entrySet()) {
+            layouts.put(entry.getKey(), newLayout(entry.getKey(), entry.getValue().toArray(new MotorTelemetrySource[0])));
+        }
+        layoutArray = layouts.values().toArray(new MotorLayout[0]);
+    }
+
+    private static MotorLayout newLayout(Class<? extends MotorLayout> layout, MotorTelemetrySource[] motors) {
+        try {
+            return layout.getConstructor(MotorTelemetrySource[].class).newInstance((Object) motors);
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException(layout.getSimpleName() + " has no public constructor taking MotorTelemetrySource...", e);
+        }
+    }
+
+    /* where the PDP_CURRENT of each motor is read from, call before init() */
+    public void setPowerStatus(PowerStatus powerStatus) {
+        for (MotorLayout layout : layoutArray) {
+            layout.setPowerStatus(powerStatus);
+        }
+    }
+
+    /* told to reschedule() after every switch, the scheduler wrapping these profiles */
+    public void setScheduler(DiagnosticsIF scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void init() {
+        itemOffset = new int[layoutArray.length];
+        itemCount = 1;
+        for (int l = 0; l < layoutArray.length; l++) {
+            layoutArray[l].init();
+            itemOffset[l] = itemCount;
+            itemCount += layoutArray[l].getWorkItemCount();
+        }
+
+        chooser.setDefaultOption("Auto", null);
+        for (DiagnosticsProfile profile : profiles) {
+            chooser.addOption(profile.getName(), profile);
+        }
+        WidgetBuilder.add(summaryTab.getTitle(), () ->
+            summaryTab.add("Diagnostics Profile", chooser)
+                .withWidget(BuiltInWidgets.kComboBoxChooser)
+                .withSize(2, 1));
+        WidgetBuilder.add(summaryTab.getTitle(), () ->
+            activeEntry = new TelemetryEntry(summaryTab.add("Active Profile", "")
+                .withWidget(BuiltInWidgets.kTextView)
+                .getEntry(), 0));
+
+        activate(select());
+    }
+
+    /* the profile the chooser asks for */
+    private DiagnosticsProfile select() {
+        DiagnosticsProfile selected = chooser.getSelected();
+        if (selected != null) {
+            return selected;
+        }
+        return DriverStation.isFMSAttached() ? matchProfile : pitProfile;
+    }
+
+    private void activate(DiagnosticsProfile profile) {
+        MotorLayout layout = layouts.get(profile.getLayout());
+        MotorUpdate update = layout.getMotorUpdate();
+        boolean[] enabled = new boolean[update.getNumMotors()];
+        for (int i = 0; i < enabled.length; i++) {
+            enabled[i] = profile.includes(update.getMotor(i));
+        }
+        update.setSampling(enabled, profile.getPeriods());
+
+        activeLayout = layout;
+        active = profile;
+        if (scheduler != null) {
+            scheduler.reschedule();
+        }
+        System.out.println("Diagnostics profile: " + profile.getName());
+    }
+
+    /* switches to the selected profile if it changed and publishes which one is active */
+    private void checkSelection() {
+        DiagnosticsProfile selected = select();
+        if (selected != active) {
+            activate(selected);
+        }
+        TelemetryEntry entry = activeEntry;
+        if (entry != null) {
+            entry.setString(active.getName());
+        }
+    }
+
+    @Override
+    public void updateStatus() {
+        checkSelection();
+        activeLayout.updateStatus();
+    }
+
+    @Override
+    public int getWorkItemCount() {
+        return itemCount;
+    }
+
+    /* the index into layoutArray of a work item, -1 for item 0 */
+    private int layoutOf(int index) {
+        for (int l = layoutArray.length - 1; l >= 0; l--) {
+            if (index >= itemOffset[l]) {
+                return l;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void updateWorkItem(int index) {
+        int l = layoutOf(index);
+        if (l < 0) {
+            checkSelection();
+        } else if (layoutArray[l] == activeLayout) {
+            layoutArray[l].updateWorkItem(index - itemOffset[l]);
+        }
+    }
+
+    @Override
+    public int getWorkItemPeriod(int index) {
+        int l = layoutOf(index);
+        if (l < 0) {
+            return 0;
+        }
+        if (layoutArray[l] != activeLayout) {
+            return RoundRobinScheduler.DISABLED;
+        }
+        return layoutArray[l].getWorkItemPeriod(index - itemOffset[l]);
+    }
+
+    /* a switch back to the match profile isn't held up by throttling */
+    @Override
+    public boolean isEssentialWorkItem(int index) {
+        int l = layoutOf(index);
+        return l < 0 || layoutArray[l].isEssentialWorkItem(index - itemOffset[l]);
+    }
+
+    @Override
+    public void setThrottle(int factor) {
+        for (MotorLayout layout : layoutArray) {
+            layout.setThrottle(factor);
+        }
+    }
+
+    @Override
+    public void flush() {
+        activeLayout.flush();
+    }
+
+    /**
+     * Asks for the status frames carrying the MotorDataTypes of every profile, at the fastest rate
+     * any profile samples them, so a switch doesn't have to change the frame periods.
+     * @param refreshPeriod the scheduler's refresh period in seconds, what a period of 0 stands for
+     */
+    public void requireStatusFrames(StatusFrameManager frames, double refreshPeriod) {
+        int refreshMs = (int) Math.round(refreshPeriod * 1000);
+        for (DiagnosticsProfile profile : profiles) {
+            MotorUpdate update = layouts.get(profile.getLayout()).getMotorUpdate();
+            for (int i = 0; i < update.getNumMotors(); i++) {
+                if (!(update.getMotor(i) instanceof CCSparkMax) || !profile.includes(update.getMotor(i))) {
+                    continue;
+                }
+                CCSparkMax motor = (CCSparkMax) update.getMotor(i);
+                frames.register(motor);
+                for (MotorDataType type : update.getSampledData()) {
+                    int periodMs = profile.getPeriod(type);
+                    if (type == MotorDataType.FAULTS && periodMs == RoundRobinScheduler.DISABLED) {
+                        periodMs = type.getPeriodMs();
+                    }
+                    if (periodMs == 0) {
+                        periodMs = refreshMs;
+                    }
+                    if (StatusFrameManager.getFrame(type) != null && periodMs > 0) {
+                        frames.requireTelemetry(motor, StatusFrameManager.getFrame(type), periodMs);
+                    }
+                }
+            }
+        }
+    }
+
+    /* the MotorUpdate of the pit profile's layout, null until init() has run */
+    public MotorUpdate getMotorUpdate() {
+        return layouts.get(pitProfile.getLayout()).getMotorUpdate();
+    }
+
+    public DiagnosticsProfile getActiveProfile() {
+        return active;
+    }
+}
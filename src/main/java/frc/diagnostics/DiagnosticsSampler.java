@@ -0,0 +1,87 @@
+package frc.diagnostics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DiagnosticsSampler moves sampling and publishing of the wrapped diagnostics off the robot loop.
+ * A low priority daemon thread calls updateStatus() on each of them once per period, so the
+ * CAN/JNI reads and NetworkTables writes never run inside a 20 ms control cycle.  The wrapped
+ * diagnostics hand their readings to other threads through a SnapshotBuffer.  setThrottle()
+ * stretches the period, the thread refreshes everything together so nothing is kept at full rate.
+ */
+public class DiagnosticsSampler implements DiagnosticsIF {
+
+    private final DiagnosticsIF[] diagnostics;
+    private final long periodNanos;
+    private volatile int throttle = 1;
+    private Thread thread;
+
+    /**
+     * @param periodSeconds how often the wrapped diagnostics are refreshed
+     * @param diagnostics the diagnostics to refresh on the sampler thread
+     */
+    public DiagnosticsSampler(double periodSeconds, DiagnosticsIF... diagnostics) {
+        this.diagnostics = diagnostics;
+        this.periodNanos = (long) (periodSeconds * 1e9);
+    }
+
+    /* widgets are still created on the calling thread, only the refresh moves to the sampler thread */
+    @Override
+    public void init() {
+        for (DiagnosticsIF d : diagnostics) {
+            d.init();
+        }
+
+        thread = new Thread(this::run, "Diagnostics Sampler");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /* nothing to do in the robot loop, the sampler thread owns the refresh */
+    @Override
+    public void updateStatus() {
+    }
+
+    /* the wrapped diagnostics are refreshed every period * factor */
+    @Override
+    public void setThrottle(int factor) {
+        throttle = Math.max(1, factor);
+        for (DiagnosticsIF d : diagnostics) {
+            d.setThrottle(factor);
+        }
+    }
+
+    public void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        long next = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            for (DiagnosticsIF d : diagnostics) {
+                try {
+                    d.updateStatus();
+                } catch (Throwable e) {
+                    // an Error too, one bad diagnostic must not stop the refresh of all the others
+                    System.err.println("Diagnostics sampler: " + d.getClass().getSimpleName() + " failed: " + e);
+                }
+            }
+
+            next += periodNanos * throttle;
+            long delay = next - System.nanoTime();
+            if (delay < 0) {
+                // fell behind, don't try to catch up with back to back refreshes
+                next = System.nanoTime();
+                continue;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package frc.diagnostics;
+
+import java.util.StringJoiner;
+
+import com.revrobotics.CANSparkMax.FaultID;
+
+/**
+ * FaultDecoder turns a SparkMax fault bitmask (getFaults() or getStickyFaults()) into the text
+ * shown on the dashboard.  Each message is built once, the first time its mask is seen, and then
+ * served from a table indexed by the mask, so decoding an unchanged mask does no work.
+ */
+public final class FaultDecoder {
+
+    public static final String NO_FAULT = "No fault";
+
+    /* the name of each fault bit, indexed by FaultID.value */
+    private static final String[] bitNames;
+
+    /* message cache indexed by the fault mask, filled on first use */
+    private static final String[] messages;
+
+    static {
+        int bits = 0;
+        for (FaultID faultId : FaultID.values()) {
+            bits = Math.max(bits, faultId.value + 1);
+        }
+        bitNames = new String[bits];
+        for (FaultID faultId : FaultID.values()) {
+            bitNames[faultId.value] = faultId.name();
+        }
+        messages = new String[1 << bits];
+        messages[0] = NO_FAULT;
+    }
+
+    private FaultDecoder() {}
+
+    /* keeps only the bits that are FaultIDs, also undoes the sign extension of the short returned by getFaults() */
+    public static int toMask(int faults) {
+        return faults & (messages.length - 1);
+    }
+
+    /* the comma separated names of the faults set in the mask, or NO_FAULT */
+    public static String getMessage(int faults) {
+        int mask = toMask(faults);
+        String msg = messages[mask];
+        if (msg == null) {
+            // racing threads build equal strings, either one may end up in the table
+            msg = buildMessage(mask);
+            messages[mask] = msg;
+        }
+        return msg;
+    }
+
+    private static String buildMessage(int mask) {
+        StringJoiner sj = new StringJoiner(",");
+        for (int bit = 0; bit < bitNames.length; bit++) {
+            if ((mask & (1 << bit)) != 0 && bitNames[bit] != null) {
+                sj.add(bitNames[bit]);
+            }
+        }
+        return sj.toString();
+    }
+}
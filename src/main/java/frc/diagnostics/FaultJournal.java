@@ -0,0 +1,159 @@
+package frc.diagnostics;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.revrobotics.CANSparkMax.FaultID;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * FaultJournal catches faults that come and go between two diagnostics refreshes.  poll() runs
+ * every loop and compares each motor's fault and sticky fault bitmasks against the previous loop;
+ * every bit that was set or cleared becomes a timestamped event in a bounded single producer,
+ * single consumer queue.  updateStatus() drains the queue into the match history shown in the
+ * "Fault Events" list on the Summary tab.  Faults present at startup are reported as set.  The
+ * fault bitmask poll() read is kept for getFaults(), so BlackBoxRecorder doesn't read it again.
+ */
+public class FaultJournal implements DiagnosticsIF {
+
+    /* events waiting to be published, new events are dropped and counted while it is full */
+    private static final int QUEUE_CAPACITY = 256;
+    /* events kept and shown for the match */
+    private static final int MAX_HISTORY = 100;
+
+    private final ShuffleboardTab summaryTab = Shuffleboard.getTab("Summary");
+    private NetworkTableEntry eventsEntry;
+
+    private final MotorTelemetrySource[] motors;
+    private final int[] lastFaults;
+    private final int[] lastStickyFaults;
+
+    /* the queue: parallel primitive arrays, head is only written by the consumer and tail by the producer */
+    private final long[] eventTime = new long[QUEUE_CAPACITY];
+    private final int[] eventMotor = new int[QUEUE_CAPACITY];
+    private final int[] eventBit = new int[QUEUE_CAPACITY];
+    private final boolean[] eventSticky = new boolean[QUEUE_CAPACITY];
+    private final boolean[] eventSet = new boolean[QUEUE_CAPACITY];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private final ArrayDeque<String> history = new ArrayDeque<>();
+    /* the history changed since it was last published, it waits for the widget */
+    private boolean historyChanged;
+
+    public FaultJournal(MotorTelemetrySource... motors) {
+        this.motors = motors;
+        this.lastFaults = new int[motors.length];
+        this.lastStickyFaults = new int[motors.length];
+    }
+
+    @Override
+    public void init() {
+        WidgetBuilder.add(summaryTab.getTitle(), () ->
+            eventsEntry = summaryTab
+              .add("Fault Events", new String[0])
+              .withWidget(BuiltInWidgets.kTextView)
+              .withSize(4, 2)
+              .getEntry());
+    }
+
+    /* the index of motor for getFaults(), -1 if it isn't journaled */
+    public int indexOf(MotorTelemetrySource motor) {
+        for (int i = 0; i < motors.length; i++) {
+            if (motors[i] == motor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /* the fault bitmask (see FaultDecoder) of a motor read by the last poll(), call from the robot loop */
+    public int getFaults(int motor) {
+        return lastFaults[motor];
+    }
+
+    /* compares every motor's faults with the previous call, call once per robot loop */
+    public void poll() {
+        long now = RobotController.getFPGATime();
+        for (int i = 0; i < motors.length; i++) {
+            int faults = FaultDecoder.toMask(motors[i].getFaults());
+            int stickyFaults = FaultDecoder.toMask(motors[i].getStickyFaults());
+            addEvents(now, i, false, lastFaults[i], faults);
+            addEvents(now, i, true, lastStickyFaults[i], stickyFaults);
+            lastFaults[i] = faults;
+            lastStickyFaults[i] = stickyFaults;
+        }
+    }
+
+    private void addEvents(long now, int motor, boolean sticky, int previous, int current) {
+        int changed = previous ^ current;
+        while (changed != 0) {
+            int bit = Integer.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+
+            long t = tail.get();
+            if (t - head.get() >= QUEUE_CAPACITY) {
+                droppedEvents.incrementAndGet();
+                continue;
+            }
+            int slot = (int) (t % QUEUE_CAPACITY);
+            eventTime[slot] = now;
+            eventMotor[slot] = motor;
+            eventBit[slot] = bit;
+            eventSticky[slot] = sticky;
+            eventSet[slot] = (current & (1 << bit)) != 0;
+            tail.lazySet(t + 1);
+        }
+    }
+
+    /* moves queued events into the history and publishes it */
+    @Override
+    public void updateStatus() {
+        long h = head.get();
+        long t = tail.get();
+        for (; h < t; h++) {
+            int slot = (int) (h % QUEUE_CAPACITY);
+            history.addLast(formatEvent(slot));
+            if (history.size() > MAX_HISTORY) {
+                history.removeFirst();
+            }
+            historyChanged = true;
+        }
+        head.lazySet(h);
+
+        NetworkTableEntry entry = eventsEntry;
+        if (historyChanged && entry != null) {
+            historyChanged = false;
+            entry.setStringArray(history.toArray(new String[0]));
+        }
+    }
+
+    private String formatEvent(int slot) {
+        return String.format("%.3f %s %s%s %s",
+            eventTime[slot] / 1e6,
+            motors[eventMotor[slot]].getShortName(),
+            eventSticky[slot] ? "sticky " : "",
+            faultName(eventBit[slot]),
+            eventSet[slot] ? "set" : "cleared");
+    }
+
+    private static String faultName(int bit) {
+        for (FaultID faultId : FaultID.values()) {
+            if (faultId.value == bit) {
+                return faultId.name();
+            }
+        }
+        return "bit" + bit;
+    }
+
+    /* the number of events lost because the queue was full */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+}
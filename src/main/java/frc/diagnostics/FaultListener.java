@@ -0,0 +1,14 @@
+package frc.diagnostics;
+
+/**
+ * FaultListener is told when MotorUpdate sees a fault bit that wasn't set in the previous sample.
+ * It may be called from the diagnostics sampler thread.
+ */
+public interface FaultListener {
+
+    /**
+     * @param motor the motor reporting the fault
+     * @param newFaults the fault bits that just appeared, see FaultDecoder
+     */
+    void onNewFault(MotorTelemetrySource motor, int newFaults);
+}
@@ -0,0 +1,129 @@
+package frc.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * LoopTiming records how long each phase of the robot loop takes, so an overrun can be traced to
+ * the phase that caused it.  Phases are registered once with addPhase(); each record() adds a
+ * System.nanoTime() duration to the phase's LatencyHistogram and counts it as an overrun if it is
+ * longer than the phase's budget.  endLoop() publishes p50, p99, p99.9 and max (in milliseconds),
+ * the overrun count and the sample count of every phase to the "Timing" tab as one number array,
+ * laid out as described by the "Timing Columns" entry.  Everything runs on the robot loop thread.
+ */
+public class LoopTiming {
+
+    private static final String[] COLUMNS = { "p50 ms", "p99 ms", "p99.9 ms", "max ms", "overruns", "count" };
+
+    private final ShuffleboardTab timingTab = Shuffleboard.getTab("Timing");
+    private final int publishCycles;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Long> budgets = new ArrayList<>();
+
+    private LatencyHistogram[] histograms = new LatencyHistogram[0];
+    private long[] budgetNanos = new long[0];
+    private long[] overruns = new long[0];
+    private NetworkTableEntry[] entries = new NetworkTableEntry[0];
+    private double[] values = new double[COLUMNS.length];
+    private long cycle;
+
+    /**
+     * @param loopPeriod the robot loop period in seconds
+     * @param publishPeriod how often the timings are published in seconds
+     */
+    public LoopTiming(double loopPeriod, double publishPeriod) {
+        this.publishCycles = Math.max(1, (int) Math.round(publishPeriod / loopPeriod));
+    }
+
+    /**
+     * Registers a phase, must be called before init().
+     * @param budgetNanos a record() longer than this counts as an overrun
+     * @return the id to pass to record()
+     */
+    public int addPhase(String name, long budgetNanos) {
+        names.add(name);
+        budgets.add(budgetNanos);
+        return names.size() - 1;
+    }
+
+    /* creates the histograms of the registered phases, and queues their widgets with WidgetBuilder */
+    public void init() {
+        String title = timingTab.getTitle();
+        WidgetBuilder.add(title, () ->
+            timingTab.add("Timing Columns", COLUMNS)
+              .withWidget(BuiltInWidgets.kTextView)
+              .withSize(2, 1));
+
+        int size = names.size();
+        histograms = new LatencyHistogram[size];
+        budgetNanos = new long[size];
+        overruns = new long[size];
+        entries = new NetworkTableEntry[size];
+        for (int i = 0; i < size; i++) {
+            histograms[i] = new LatencyHistogram();
+            budgetNanos[i] = budgets.get(i);
+            int phase = i;
+            WidgetBuilder.add(title, () ->
+                entries[phase] = timingTab.add(names.get(phase), values)
+                  .withWidget(BuiltInWidgets.kTextView)
+                  .withSize(2, 1)
+                  .getEntry());
+        }
+    }
+
+    /* adds the time since start, a System.nanoTime() reading, to the phase */
+    public void record(int phase, long start) {
+        recordNanos(phase, System.nanoTime() - start);
+    }
+
+    public void recordNanos(int phase, long nanos) {
+        if (phase >= histograms.length) {
+            // registered after init()
+            return;
+        }
+        histograms[phase].record(nanos);
+        if (nanos > budgetNanos[phase]) {
+            overruns[phase]++;
+        }
+    }
+
+    /* publishes the timings once every publish period, call at the end of every robot loop */
+    public void endLoop() {
+        if (cycle++ % publishCycles != 0) {
+            return;
+        }
+
+        for (int i = 0; i < histograms.length; i++) {
+            if (entries[i] == null) {
+                // widget not built yet
+                continue;
+            }
+            LatencyHistogram h = histograms[i];
+            values[0] = h.getValueAt(0.50) / 1e6;
+            values[1] = h.getValueAt(0.99) / 1e6;
+            values[2] = h.getValueAt(0.999) / 1e6;
+            values[3] = h.getMax() / 1e6;
+            values[4] = overruns[i];
+            values[5] = h.getCount();
+            entries[i].setDoubleArray(values);
+        }
+    }
+
+    /* starts every phase over, e.g. when the robot changes mode */
+    public void clear() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i].clear();
+            overruns[i] = 0;
+        }
+    }
+
+    public long getOverruns(int phase) {
+        return overruns[phase];
+    }
+}
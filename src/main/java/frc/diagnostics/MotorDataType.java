@@ -3,37 +3,49 @@ package frc.diagnostics;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import static edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets.*;
 
+import static frc.diagnostics.RoundRobinScheduler.RUN_ONCE;
+
 import java.util.Collections;
 import java.util.Map;
 
 public enum MotorDataType {
-    FAULTS("Faults", kTextView ,"No fault", 2), 
-    STICKY_FAULTS("Sticky Faults", kTextView, "No Fault", 2), 
-    TEMP("Temp",kNumberBar, 0, Map.of("Min", 0, "Max", 100), 1), 
-    INVERTED_STATE("Inv. State", kTextView, "", 1), 
-    POSITION("Position", kTextView, "", 1), 
-    VELOCITY("Velocity", kNumberBar, 0, Map.of("Min", 0, "Max", 100), 1);
+    FAULTS("Faults", kTextView ,"No fault", 2, 0, 100), 
+    STICKY_FAULTS("Sticky Faults", kTextView, "No Fault", 2, 0, 1000), 
+    TEMP("Temp",kNumberBar, 0, Map.of("Min", 0, "Max", 100), 1, 0.5, 1000), 
+    INVERTED_STATE("Inv. State", kTextView, "", 1, 0, RUN_ONCE), 
+    POSITION("Position", kTextView, 0, 1, 0.01, 20), 
+    VELOCITY("Velocity", kNumberBar, 0, Map.of("Min", 0, "Max", 100), 1, 1.0, 20),
+    // read from the PowerStatus snapshot, not from the motor
+    PDP_CURRENT("PDP Current", kNumberBar, 0, Map.of("Min", 0, "Max", 40), 1, 0.1, 20);
 
     private final BuiltInWidgets widgetType;
     private final String label;
     private final Object defaultValue;
     private final Map<String,Object> properties;
     private final int width;
+    /* how far a value has to change before it is published again, see TelemetryEntry */
+    private final double deadband;
+    /* how often the value is sampled in milliseconds, or RUN_ONCE, see RoundRobinScheduler */
+    private final int periodMs;
 
-    private MotorDataType(String label, BuiltInWidgets widget, Object defaultValue, Map<String, Object> properties, int width) {
+    private MotorDataType(String label, BuiltInWidgets widget, Object defaultValue, Map<String, Object> properties, int width, double deadband, int periodMs) {
         this.label = label;
         this.widgetType = widget;
         this.defaultValue = defaultValue;
         this.properties = properties;
         this.width = width;
+        this.deadband = deadband;
+        this.periodMs = periodMs;
     }
 
-    private MotorDataType(String label, BuiltInWidgets widget, Object defaultValue, int width) {
+    private MotorDataType(String label, BuiltInWidgets widget, Object defaultValue, int width, double deadband, int periodMs) {
         this.label = label;
         this.widgetType = widget;
         this.defaultValue = defaultValue;
         this.properties = Collections.emptyMap();
         this.width = width;
+        this.deadband = deadband;
+        this.periodMs = periodMs;
     }
 
     public String getLabel() {
@@ -55,4 +67,12 @@ public enum MotorDataType {
     public int getWidth() {
         return width;
     }
+
+    public double getDeadband() {
+        return deadband;
+    }
+
+    public int getPeriodMs() {
+        return periodMs;
+    }
 }
\ No newline at end of file
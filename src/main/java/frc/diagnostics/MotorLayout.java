@@ -0,0 +1,14 @@
+package frc.diagnostics;
+
+/**
+ * A Diagnostics layout: the widgets of a set of motors, refreshed through its MotorUpdate.
+ * Every layout has a constructor taking the motors as MotorTelemetrySource..., see DiagnosticsProfiles.
+ */
+public interface MotorLayout extends DiagnosticsIF {
+
+    /* where the PDP_CURRENT of each motor is read from, call before init() */
+    void setPowerStatus(PowerStatus powerStatus);
+
+    /* null until init() has run */
+    MotorUpdate getMotorUpdate();
+}
@@ -0,0 +1,107 @@
+package frc.diagnostics;
+
+/**
+ * MotorSnapshot holds the values sampled from each motor in one pass, indexed by the motor's
+ * position in the MotorUpdate motor list.
+ */
+public class MotorSnapshot extends Snapshot<MotorSnapshot> {
+
+    private final int[] faults;
+    private final int[] stickyFaults;
+    private final boolean[] inverted;
+    private final double[] temp;
+    private final double[] position;
+    private final double[] velocity;
+    private final double[] pdpCurrent;
+
+    public MotorSnapshot(int numMotors) {
+        faults = new int[numMotors];
+        stickyFaults = new int[numMotors];
+        inverted = new boolean[numMotors];
+        temp = new double[numMotors];
+        position = new double[numMotors];
+        velocity = new double[numMotors];
+        pdpCurrent = new double[numMotors];
+    }
+
+    public int getNumMotors() {
+        return faults.length;
+    }
+
+    public int getFaults(int motor) {
+        return faults[motor];
+    }
+
+    public void setFaults(int motor, int value) {
+        faults[motor] = value;
+    }
+
+    public int getStickyFaults(int motor) {
+        return stickyFaults[motor];
+    }
+
+    public void setStickyFaults(int motor, int value) {
+        stickyFaults[motor] = value;
+    }
+
+    public boolean isInverted(int motor) {
+        return inverted[motor];
+    }
+
+    public void setInverted(int motor, boolean value) {
+        inverted[motor] = value;
+    }
+
+    public double getTemp(int motor) {
+        return temp[motor];
+    }
+
+    public void setTemp(int motor, double value) {
+        temp[motor] = value;
+    }
+
+    public double getPosition(int motor) {
+        return position[motor];
+    }
+
+    public void setPosition(int motor, double value) {
+        position[motor] = value;
+    }
+
+    public double getVelocity(int motor) {
+        return velocity[motor];
+    }
+
+    public void setVelocity(int motor, double value) {
+        velocity[motor] = value;
+    }
+
+    public double getPdpCurrent(int motor) {
+        return pdpCurrent[motor];
+    }
+
+    public void setPdpCurrent(int motor, double value) {
+        pdpCurrent[motor] = value;
+    }
+
+    /* overall health: true if no motor reports an active fault */
+    public boolean isFaultFree() {
+        for (int f : faults) {
+            if (f != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void copyValuesFrom(MotorSnapshot other) {
+        System.arraycopy(other.faults, 0, faults, 0, faults.length);
+        System.arraycopy(other.stickyFaults, 0, stickyFaults, 0, stickyFaults.length);
+        System.arraycopy(other.inverted, 0, inverted, 0, inverted.length);
+        System.arraycopy(other.temp, 0, temp, 0, temp.length);
+        System.arraycopy(other.position, 0, position, 0, position.length);
+        System.arraycopy(other.velocity, 0, velocity, 0, velocity.length);
+        System.arraycopy(other.pdpCurrent, 0, pdpCurrent, 0, pdpCurrent.length);
+    }
+}
@@ -0,0 +1,31 @@
+package frc.diagnostics;
+
+/**
+ * MotorTelemetrySource is what the diagnostics read from a motor controller.  CCSparkMax implements
+ * it on top of CANSparkMax; other implementations can stand in for hardware, e.g. to measure how
+ * the diagnostics scale with many more motors than the robot has.
+ */
+public interface MotorTelemetrySource {
+
+    /* must be unique, the layouts key their widgets by it */
+    String getName();
+
+    String getShortName();
+
+    /* the active fault bits, see FaultDecoder */
+    short getFaults();
+
+    /* the fault bits set since they were last cleared, see FaultDecoder */
+    short getStickyFaults();
+
+    double getMotorTemperature();
+
+    double getPosition();
+
+    double getVelocity();
+
+    boolean getInverted();
+
+    /* the power distribution channel feeding the motor, negative if it isn't known */
+    int getPowerChannel();
+}
@@ -1,125 +1,364 @@
 package frc.diagnostics;
 
-import frc.helpers.CCSparkMax;
-
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.StringJoiner;
-
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.CANSparkMax.FaultID;
+import java.util.stream.Stream;
 
 import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.RobotController;
 
+/**
+ * MotorUpdate samples the displayed MotorDataTypes of each motor and publishes them to the
+ * entries created by a Diagnostics layout.  A steady state refresh doesn't allocate: entries are
+ * looked up in a dense table, numbers are published as doubles and fault text comes from FaultDecoder.
+ * setSampling() turns motors and MotorDataTypes off, or changes their rate, without touching the widgets.
+ */
 public class MotorUpdate {
 
     private Map<String, Map<MotorDataType, NetworkTableEntry>> motorEntryMap;
-    private List<CCSparkMax> motors;
-    private NetworkTableEntry faultEntry;
+    private List<MotorTelemetrySource> motors;
+    private volatile TelemetryEntry faultEntry;
     private MotorDataType[] displayedData;
 
+    /* the entries of motorEntryMap wrapped for change detection, indexed by [motor index][MotorDataType ordinal] */
+    private final TelemetryEntry[][] telemetryEntries;
+
+    /* displayedData plus FAULTS, which the summary fault indicator always needs */
+    private MotorDataType[] sampledData;
+
+    /* set by setSampling(), replaced rather than changed so a refresh on another thread sees one or the other */
+    private volatile boolean[] motorEnabled;
+    private volatile int[] samplePeriods;
+
+    /* the sampler's own snapshot, and the double buffer that hands it to other readers */
+    private final MotorSnapshot working;
+    private boolean sampledOnce;
+
+    /* told about new faults seen by any MotorUpdate */
+    private static volatile FaultListener[] faultListeners = new FaultListener[0];
+    private final SnapshotBuffer<MotorSnapshot> snapshots;
+
+    /* PDP_CURRENT comes from the latest PowerStatus snapshot, refreshed only when it has a new generation */
+    private PowerStatus powerStatus;
+    private PowerSnapshot power;
+    private long powerGeneration;
+
+    /* entries missing from motorEntryMap, or a null faultEntry, can be added later with setEntry() and setFaultEntry() */
     public MotorUpdate(Map<String, Map<MotorDataType, NetworkTableEntry>> motorEntryMap,
-        List<CCSparkMax> motors, NetworkTableEntry faultEntry, MotorDataType[] displayedData) {
+        List<MotorTelemetrySource> motors, NetworkTableEntry faultEntry, MotorDataType[] displayedData) {
         this.motorEntryMap = motorEntryMap;
         this.motors = motors;
-        this.faultEntry = faultEntry;
+        this.faultEntry = faultEntry == null ? null : new TelemetryEntry(faultEntry, 0);
         this.displayedData = displayedData;
-    }
-
-    public static void updateFaultStatus(NetworkTableEntry entry, CCSparkMax motor) {
-        int fault = motor.getFaults();
-        String faultMsg = "No fault";
-        if (fault != 0) {
-            StringJoiner sj = new StringJoiner(",");
-            for(CANSparkMax.FaultID faultId : FaultID.values()) {
-                if (motor.getFault(faultId)) {
-                    sj.add(faultId.name());
+        this.sampledData = Arrays.asList(displayedData).contains(MotorDataType.FAULTS) ? displayedData
+            : Stream.concat(Stream.of(MotorDataType.FAULTS), Arrays.stream(displayedData)).toArray(MotorDataType[]::new);
+        this.telemetryEntries = new TelemetryEntry[motors.size()][MotorDataType.values().length];
+        for (int i = 0, size = motors.size(); i < size; i++) {
+            Map<MotorDataType, NetworkTableEntry> entryMap = motorEntryMap.get(motors.get(i).getName());
+            for (MotorDataType type : displayedData) {
+                NetworkTableEntry entry = entryMap == null ? null : entryMap.get(type);
+                if (entry != null) {
+                    telemetryEntries[i][type.ordinal()] = new TelemetryEntry(entry, type.getDeadband());
                 }
             }
-            faultMsg = sj.toString();
         }
-        entry.setString(faultMsg);
+        this.motorEnabled = new boolean[motors.size()];
+        Arrays.fill(motorEnabled, true);
+        this.samplePeriods = new int[MotorDataType.values().length];
+        for (MotorDataType type : MotorDataType.values()) {
+            samplePeriods[type.ordinal()] = type.getPeriodMs();
+        }
+        this.working = new MotorSnapshot(motors.size());
+        this.snapshots = new SnapshotBuffer<>(new MotorSnapshot(motors.size()), new MotorSnapshot(motors.size()));
     }
 
-    public void updateStickyFaultStatus(NetworkTableEntry entry, CCSparkMax motor) {
-        int fault = motor.getStickyFaults();
-        String faultMsg = "No fault";
-        if (fault != 0) {
-            StringJoiner sj = new StringJoiner(",");
-            for(CANSparkMax.FaultID faultId : FaultID.values()) {
-                if (motor.getStickyFault(faultId)) {
-                    sj.add(faultId.name());
-                }
-            }
-            faultMsg = sj.toString();
-        }
-        entry.setString(faultMsg);
+    /* adds the entry of a displayed MotorDataType once its widget exists, until then it isn't published */
+    public void setEntry(int index, MotorDataType type, NetworkTableEntry entry) {
+        telemetryEntries[index][type.ordinal()] = new TelemetryEntry(entry, type.getDeadband());
     }
 
-    private void updateFaultStatus(CCSparkMax motor, MotorDataType type) {
-        if (type.equals(MotorDataType.FAULTS)) {
-            updateFaultStatus(getEntry(motor,type), motor);
-        } else {
-            updateStickyFaultStatus(getEntry(motor,type), motor);
-        }
+    /* adds the summary fault indicator once its widget exists */
+    public void setFaultEntry(NetworkTableEntry entry) {
+        faultEntry = new TelemetryEntry(entry, 0);
+    }
+
+    public static String getFaultMessage(int fault) {
+        return FaultDecoder.getMessage(fault);
+    }
+
+    public static void updateFaultStatus(NetworkTableEntry entry, MotorTelemetrySource motor) {
+        entry.setString(getFaultMessage(motor.getFaults()));
     }
 
-    public NetworkTableEntry getEntry(CCSparkMax motor, MotorDataType type) {
+    public void updateStickyFaultStatus(NetworkTableEntry entry, MotorTelemetrySource motor) {
+        entry.setString(getFaultMessage(motor.getStickyFaults()));
+    }
+
+    public NetworkTableEntry getEntry(MotorTelemetrySource motor, MotorDataType type) {
         return motorEntryMap.get(motor.getName()).get(type);
     }
-    
-    public void updateDoubleStatus(CCSparkMax motor, MotorDataType type) {
+
+    /* the entry of a displayed MotorDataType, null if it isn't displayed */
+    public TelemetryEntry getTelemetryEntry(int index, MotorDataType type) {
+        return telemetryEntries[index][type.ordinal()];
+    }
+
+    /* reads one MotorDataType from the motor at index into the working snapshot */
+    public void sampleStatus(int index, MotorDataType type) {
+        MotorTelemetrySource motor = motors.get(index);
+
         switch(type) {
+            // the one fault read per motor per cycle, the summary indicator reuses it from the snapshot
+            case FAULTS: {
+                int faults = FaultDecoder.toMask(motor.getFaults());
+                int newFaults = faults & ~working.getFaults(index);
+                working.setFaults(index, faults);
+                if (newFaults != 0) {
+                    for (FaultListener listener : faultListeners) {
+                        listener.onNewFault(motor, newFaults);
+                    }
+                }
+            }
+            break;
+            case STICKY_FAULTS:
+                working.setStickyFaults(index, FaultDecoder.toMask(motor.getStickyFaults()));
+                break;
             case TEMP:
-                getEntry(motor,type).setDouble(motor.getMotorTemperature());
+                working.setTemp(index, motor.getMotorTemperature());
                 break;
             case POSITION:
-                getEntry(motor,type).setString(Double.toString(motor.getEncoder().getPosition()));
+                working.setPosition(index, motor.getPosition());
                 break;
             case VELOCITY:
-                getEntry(motor,type).setDouble(motor.getEncoder().getVelocity());
+                working.setVelocity(index, motor.getVelocity());
+                break;
+            case INVERTED_STATE:
+                working.setInverted(index, motor.getInverted());
                 break;
-            default:
+            case PDP_CURRENT:
+                working.setPdpCurrent(index, readPdpCurrent(motor.getPowerChannel()));
                 break;
         }
     }
 
-    public void updateStatus(CCSparkMax motor, MotorDataType type) {
+    private double readPdpCurrent(int channel) {
+        if (powerStatus == null || channel < 0 || channel >= power.getNumChannels()) {
+            return 0;
+        }
+        if (powerStatus.getGeneration() != powerGeneration) {
+            powerGeneration = powerStatus.readSnapshot(power);
+        }
+        return power.getChannelCurrent(channel);
+    }
+
+    /* where PDP_CURRENT is read from, without it PDP_CURRENT shows 0 */
+    public void setPowerStatus(PowerStatus powerStatus) {
+        this.powerStatus = powerStatus;
+        this.power = powerStatus == null ? null : powerStatus.newSnapshot();
+        this.powerGeneration = 0;
+    }
+
+    /**
+     * Changes what is sampled, the widgets stay as they are.  Call reschedule() on the scheduler afterwards.
+     * @param enabled whether each motor is sampled, indexed like the motors
+     * @param periods the period in ms of each MotorDataType, indexed by ordinal, 0 for the refresh period
+     * or RoundRobinScheduler.DISABLED; FAULTS can't be turned off, the fault indicator and listeners need it
+     */
+    public void setSampling(boolean[] enabled, int[] periods) {
+        int[] copy = periods.clone();
+        if (copy[MotorDataType.FAULTS.ordinal()] == RoundRobinScheduler.DISABLED) {
+            copy[MotorDataType.FAULTS.ordinal()] = MotorDataType.FAULTS.getPeriodMs();
+        }
+        samplePeriods = copy;
+        motorEnabled = enabled.clone();
+        // whatever is only read once may just have been turned on
+        sampledOnce = false;
+    }
+
+    /* the period in ms a MotorDataType is sampled at, RoundRobinScheduler.DISABLED if it isn't */
+    public int getSamplePeriod(MotorDataType type) {
+        return samplePeriods[type.ordinal()];
+    }
+
+    /* whether the snapshots hold current values of type for the motor at index, stale ones if it was turned off */
+    public boolean isSampled(int index, MotorDataType type) {
+        if (!motorEnabled[index] || samplePeriods[type.ordinal()] == RoundRobinScheduler.DISABLED) {
+            return false;
+        }
+        for (MotorDataType sampled : sampledData) {
+            if (sampled == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isMotorEnabled(int index) {
+        return motorEnabled[index];
+    }
+
+    /* writes one MotorDataType of the motor at index from the snapshot to its NetworkTableEntry */
+    public void publishStatus(MotorSnapshot snapshot, int index, MotorDataType type) {
+        TelemetryEntry entry = telemetryEntries[index][type.ordinal()];
+        if (entry == null) {
+            // sampled for the summary but not displayed
+            return;
+        }
 
         switch(type) {
             case FAULTS:
+                entry.setString(getFaultMessage(snapshot.getFaults(index)));
+                break;
             case STICKY_FAULTS:
-                updateFaultStatus(motor, type);
+                entry.setString(getFaultMessage(snapshot.getStickyFaults(index)));
                 break;
             case TEMP:
+                entry.setDouble(snapshot.getTemp(index));
+                break;
             case POSITION:
+                entry.setDouble(snapshot.getPosition(index));
+                break;
             case VELOCITY:
-                updateDoubleStatus(motor,type);
+                entry.setDouble(snapshot.getVelocity(index));
+                break;
+            case PDP_CURRENT:
+                entry.setDouble(snapshot.getPdpCurrent(index));
                 break;
             case INVERTED_STATE: {
-                String msg = motor.getInverted() ? "inverted" : "";
-                getEntry(motor, type).setString(msg);
+                String msg = snapshot.isInverted(index) ? "inverted" : "";
+                entry.setString(msg);
             }
             break;
         }
     }
 
-    public void updateStatus() {
-       
-        int allFaults = 0;
-        for (CCSparkMax motor : motors) {
-            allFaults += motor.getFaults();
+    public void updateStatus(MotorTelemetrySource motor, MotorDataType type) {
+        int index = motors.indexOf(motor);
+        sampleStatus(index, type);
+        publishStatus(working, index, type);
+    }
+
+    /* samples every motor into the working snapshot and publishes it to the double buffer */
+    public void sample() {
+        boolean[] enabled = motorEnabled;
+        int[] periods = samplePeriods;
+
+        // update status on SparkMax controllers
+        for (int i = 0, size = motors.size(); i < size; i++) {
+            if (!enabled[i]) {
+                continue;
+            }
+            for(MotorDataType type : sampledData) {
+                int period = periods[type.ordinal()];
+                if (period != RoundRobinScheduler.DISABLED && (!sampledOnce || period != RoundRobinScheduler.RUN_ONCE)) {
+                    sampleStatus(i, type);
+                }
+            }
         }
 
+        sampledOnce = true;
+        flush();
+    }
+
+    /* stamps the working snapshot and publishes it to the double buffer */
+    public void flush() {
+        working.setTimestamp(RobotController.getFPGATime());
+        snapshots.publish(working);
+    }
+
+    /* writes the snapshot to the dashboard */
+    public void publish(MotorSnapshot snapshot) {
+
         // boolean status
-        faultEntry.setBoolean(allFaults == 0);
+        TelemetryEntry fault = faultEntry;
+        if (fault != null) {
+            fault.setBoolean(snapshot.isFaultFree());
+        }
 
-        // update status on SparkMax controllers
-        for (CCSparkMax motor : motors) {
+        boolean[] enabled = motorEnabled;
+        int[] periods = samplePeriods;
+        for (int i = 0, size = motors.size(); i < size; i++) {
+            if (!enabled[i]) {
+                continue;
+            }
             for(MotorDataType type : displayedData) {
-                updateStatus(motor, type);
+                if (periods[type.ordinal()] != RoundRobinScheduler.DISABLED) {
+                    publishStatus(snapshot, i, type);
+                }
             }
         }
-        
+    }
+
+    public void updateStatus() {
+        sample();
+        publish(working);
+    }
+
+    /* one work item per motor and sampled MotorDataType, see RoundRobinScheduler */
+    public int getWorkItemCount() {
+        return motors.size() * sampledData.length;
+    }
+
+    /* each item is sampled at the rate of its MotorDataType, see setSampling() */
+    public int getWorkItemPeriod(int item) {
+        if (!motorEnabled[item / sampledData.length]) {
+            return RoundRobinScheduler.DISABLED;
+        }
+        return samplePeriods[sampledData[item % sampledData.length].ordinal()];
+    }
+
+    /* FAULTS keep their rate when the diagnostics are throttled, the rest can wait */
+    public boolean isEssentialWorkItem(int item) {
+        return sampledData[item % sampledData.length] == MotorDataType.FAULTS;
+    }
+
+    public void updateWorkItem(int item) {
+        int index = item / sampledData.length;
+        MotorDataType type = sampledData[item % sampledData.length];
+        if (getWorkItemPeriod(item) == RoundRobinScheduler.DISABLED) {
+            // turned off since the scheduler last read the period
+            return;
+        }
+
+        sampleStatus(index, type);
+        publishStatus(working, index, type);
+        TelemetryEntry fault = faultEntry;
+        if (type == MotorDataType.FAULTS && fault != null) {
+            fault.setBoolean(working.isFaultFree());
+        }
+    }
+
+    /**
+     * Copies the most recently sampled values into dest.  Safe to call from any thread.
+     * @return the generation of the copied snapshot, 0 if nothing has been sampled yet
+     */
+    public long readSnapshot(MotorSnapshot dest) {
+        return snapshots.read(dest);
+    }
+
+    /* the generation of the most recently sampled snapshot, to tell whether readSnapshot() has anything new */
+    public long getGeneration() {
+        return snapshots.getGeneration();
+    }
+
+    /* registers a listener for new faults seen by every MotorUpdate */
+    public static synchronized void addFaultListener(FaultListener listener) {
+        FaultListener[] listeners = Arrays.copyOf(faultListeners, faultListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        faultListeners = listeners;
+    }
+
+    /* the displayed MotorDataTypes plus FAULTS, in the order they are sampled */
+    public MotorDataType[] getSampledData() {
+        return sampledData.clone();
+    }
+
+    public int getNumMotors() {
+        return motors.size();
+    }
+
+    public MotorTelemetrySource getMotor(int index) {
+        return motors.get(index);
     }
 }
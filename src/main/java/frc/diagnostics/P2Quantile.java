@@ -0,0 +1,116 @@
+package frc.diagnostics;
+
+/**
+ * P2Quantile estimates a quantile (e.g. the 95th percentile) of a stream without storing the
+ * samples, using the P-square algorithm of Jain and Chlamtac: five markers track the minimum,
+ * the quantile, the maximum and two points in between, and are nudged towards their ideal
+ * positions with a parabolic fit as samples arrive.  Each add() is O(1).
+ */
+public class P2Quantile {
+
+    private final double p;
+
+    /* marker heights, actual positions, desired positions and desired position increments */
+    private final double[] q = new double[5];
+    private final long[] n = new long[5];
+    private final double[] np = new double[5];
+    private final double[] dn = new double[5];
+    private long count;
+
+    /* p is between 0 and 1, e.g. 0.95 */
+    public P2Quantile(double p) {
+        this.p = p;
+        clear();
+    }
+
+    public void clear() {
+        count = 0;
+        for (int i = 0; i < 5; i++) {
+            n[i] = i;
+        }
+        np[0] = 0;
+        np[1] = 2 * p;
+        np[2] = 4 * p;
+        np[3] = 2 + 2 * p;
+        np[4] = 4;
+        dn[0] = 0;
+        dn[1] = p / 2;
+        dn[2] = p;
+        dn[3] = (1 + p) / 2;
+        dn[4] = 1;
+    }
+
+    public void add(double x) {
+        if (count < 5) {
+            // insertion sort of the first five samples, they become the initial markers
+            int i = (int) count++;
+            while (i > 0 && q[i - 1] > x) {
+                q[i] = q[i - 1];
+                i--;
+            }
+            q[i] = x;
+            return;
+        }
+        count++;
+
+        int k;
+        if (x < q[0]) {
+            q[0] = x;
+            k = 0;
+        } else if (x < q[1]) {
+            k = 0;
+        } else if (x < q[2]) {
+            k = 1;
+        } else if (x < q[3]) {
+            k = 2;
+        } else if (x <= q[4]) {
+            k = 3;
+        } else {
+            q[4] = x;
+            k = 3;
+        }
+
+        for (int i = k + 1; i < 5; i++) {
+            n[i]++;
+        }
+        for (int i = 0; i < 5; i++) {
+            np[i] += dn[i];
+        }
+
+        for (int i = 1; i < 4; i++) {
+            double d = np[i] - n[i];
+            if ((d >= 1 && n[i + 1] - n[i] > 1) || (d <= -1 && n[i - 1] - n[i] < -1)) {
+                int s = d >= 0 ? 1 : -1;
+                double candidate = parabolic(i, s);
+                q[i] = q[i - 1] < candidate && candidate < q[i + 1] ? candidate : linear(i, s);
+                n[i] += s;
+            }
+        }
+    }
+
+    private double parabolic(int i, int s) {
+        return q[i] + s / (double) (n[i + 1] - n[i - 1])
+            * ((n[i] - n[i - 1] + s) * (q[i + 1] - q[i]) / (n[i + 1] - n[i])
+                + (n[i + 1] - n[i] - s) * (q[i] - q[i - 1]) / (n[i] - n[i - 1]));
+    }
+
+    private double linear(int i, int s) {
+        return q[i] + s * (q[i + s] - q[i]) / (n[i + s] - n[i]);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /* the estimate, exact while fewer than five samples have been added */
+    public double getValue() {
+        if (count == 0) {
+            return 0;
+        }
+        if (count < 5) {
+            int index = (int) Math.min(count - 1, Math.round(p * (count - 1)));
+            return q[index];
+        }
+        return q[2];
+    }
+}
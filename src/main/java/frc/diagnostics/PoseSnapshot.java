@@ -0,0 +1,103 @@
+package frc.diagnostics;
+
+/**
+ * PoseSnapshot holds the pose and velocity the odometry estimated in one pass.  Positions are in
+ * drive units from where the pose was last reset, x forward and y to the right, and the heading
+ * is in degrees, positive clockwise like the gyro.  The timestamp is when the encoders were read.
+ */
+public class PoseSnapshot extends Snapshot<PoseSnapshot> {
+
+    private double x;
+    private double y;
+    private double heading;
+    private double leftDistance;
+    private double rightDistance;
+    private double leftVelocity;
+    private double rightVelocity;
+    private double turnRate;
+    private boolean gyroConnected;
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    public void setHeading(double heading) {
+        this.heading = heading;
+    }
+
+    public double getLeftDistance() {
+        return leftDistance;
+    }
+
+    public double getRightDistance() {
+        return rightDistance;
+    }
+
+    public void setDistances(double left, double right) {
+        leftDistance = left;
+        rightDistance = right;
+    }
+
+    /* drive units per second */
+    public double getLeftVelocity() {
+        return leftVelocity;
+    }
+
+    public double getRightVelocity() {
+        return rightVelocity;
+    }
+
+    public void setVelocities(double left, double right) {
+        leftVelocity = left;
+        rightVelocity = right;
+    }
+
+    /* the speed of the center of the robot, drive units per second */
+    public double getForwardVelocity() {
+        return (leftVelocity + rightVelocity) / 2;
+    }
+
+    /* degrees per second, positive clockwise */
+    public double getTurnRate() {
+        return turnRate;
+    }
+
+    public void setTurnRate(double turnRate) {
+        this.turnRate = turnRate;
+    }
+
+    /* false while the heading is estimated from the encoders alone */
+    public boolean isGyroConnected() {
+        return gyroConnected;
+    }
+
+    public void setGyroConnected(boolean gyroConnected) {
+        this.gyroConnected = gyroConnected;
+    }
+
+    @Override
+    protected void copyValuesFrom(PoseSnapshot other) {
+        x = other.x;
+        y = other.y;
+        heading = other.heading;
+        leftDistance = other.leftDistance;
+        rightDistance = other.rightDistance;
+        leftVelocity = other.leftVelocity;
+        rightVelocity = other.rightVelocity;
+        turnRate = other.turnRate;
+        gyroConnected = other.gyroConnected;
+    }
+}
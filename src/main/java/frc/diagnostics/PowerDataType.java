@@ -6,23 +6,29 @@ import static edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets.*;
 import java.util.Map;
 
 public enum PowerDataType {
-    VOLTAGE("Voltage", kVoltageView, 0, Map.of("Min", 0, "Max", 100), 1),
-    TEMP("Temp", kNumberBar, 0, Map.of("Min", 0, "Max", 100), 1), 
-    CURRENT("Current",kNumberBar, 0, Map.of("Min", 0, "Max", 10), 1), 
-    ENERGY("Energy", kNumberBar, 0, Map.of("Min", 0, "Max", 10), 1);
+    VOLTAGE("Voltage", kVoltageView, 0, Map.of("Min", 0, "Max", 100), 1, 0.05, 20),
+    TEMP("Temp", kNumberBar, 0, Map.of("Min", 0, "Max", 100), 1, 0.5, 1000), 
+    CURRENT("Current",kNumberBar, 0, Map.of("Min", 0, "Max", 10), 1, 0.1, 20), 
+    ENERGY("Energy", kNumberBar, 0, Map.of("Min", 0, "Max", 10), 1, 1.0, 1000);
 
     private final BuiltInWidgets widgetType;
     private final String label;
     private final Object defaultValue;
     private final Map<String,Object> properties;
     private final int width;
+    /* how far a value has to change before it is published again, see TelemetryEntry */
+    private final double deadband;
+    /* how often the value is sampled in milliseconds, see RoundRobinScheduler */
+    private final int periodMs;
 
-    private PowerDataType(String label, BuiltInWidgets widget, Object defaultValue, Map<String, Object> properties, int width) {
+    private PowerDataType(String label, BuiltInWidgets widget, Object defaultValue, Map<String, Object> properties, int width, double deadband, int periodMs) {
         this.label = label;
         this.widgetType = widget;
         this.defaultValue = defaultValue;
         this.properties = properties;
         this.width = width;
+        this.deadband = deadband;
+        this.periodMs = periodMs;
     }
 
     public String getLabel() {
@@ -44,4 +50,12 @@ public enum PowerDataType {
     public int getWidth() {
         return width;
     }
+
+    public double getDeadband() {
+        return deadband;
+    }
+
+    public int getPeriodMs() {
+        return periodMs;
+    }
 }
@@ -0,0 +1,48 @@
+package frc.diagnostics;
+
+/**
+ * PowerSnapshot holds the values sampled from the power distribution panel or hub in one pass.
+ */
+public class PowerSnapshot extends Snapshot<PowerSnapshot> {
+
+    private final double[] values = new double[PowerDataType.values().length];
+    /* always room for MAX_CHANNELS, the bulk read fills the whole array whatever the module */
+    private final double[] channelCurrents;
+    private final int numChannels;
+
+    public PowerSnapshot(int numChannels) {
+        this.numChannels = numChannels;
+        channelCurrents = new double[Math.max(numChannels, PowerStatus.MAX_CHANNELS)];
+    }
+
+    public double getValue(PowerDataType type) {
+        return values[type.ordinal()];
+    }
+
+    public void setValue(PowerDataType type, double value) {
+        values[type.ordinal()] = value;
+    }
+
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    public double getChannelCurrent(int channel) {
+        return channelCurrents[channel];
+    }
+
+    public void setChannelCurrent(int channel, double value) {
+        channelCurrents[channel] = value;
+    }
+
+    /* the backing array for PowerStatus.readChannelCurrents() */
+    double[] getChannelCurrents() {
+        return channelCurrents;
+    }
+
+    @Override
+    protected void copyValuesFrom(PowerSnapshot other) {
+        System.arraycopy(other.values, 0, values, 0, values.length);
+        System.arraycopy(other.channelCurrents, 0, channelCurrents, 0, channelCurrents.length);
+    }
+}
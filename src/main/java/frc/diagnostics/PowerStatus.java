@@ -1,7 +1,8 @@
 package frc.diagnostics;
 
-import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.hal.PowerDistributionJNI;
 import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInLayouts;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
@@ -10,106 +11,213 @@ import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 
 import static frc.diagnostics.PowerDataType.*;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
+/**
+ * PowerStatus displays the power distribution module on the "Power" tab.  It works with a CTRE PDP
+ * (16 channels) or a REV PDH (24 channels), and reads the current of every channel with a single
+ * bulk call.  Other diagnostics can look up a channel's current in the snapshot instead of reading
+ * the module again, see MotorDataType.PDP_CURRENT.
+ */
 public class PowerStatus implements DiagnosticsIF {
 
+    /* the most channels any module has (REV PDH), the bulk read always fills this many */
+    public static final int MAX_CHANNELS = 24;
+    private static final int CHANNELS_PER_ROW = 8;
+
     private final PowerDataType[] displayedPower = { VOLTAGE, TEMP, CURRENT, ENERGY };
 
     private final ShuffleboardTab powerTab = Shuffleboard.getTab("Power");
-    private final static int NUM_POWER_CHANNELS = 8;
 
-    // key -> PowerDataType, value -> NetworkTableEntry
-    private Map<PowerDataType, NetworkTableEntry> powerEntryMap = new HashMap<>();
-    private List<NetworkTableEntry> powerChannels = new ArrayList<>();
+    /* indexed by PowerDataType ordinal and by channel, null until WidgetBuilder has created the widget */
+    private final TelemetryEntry[] powerEntries = new TelemetryEntry[PowerDataType.values().length];
+    private TelemetryEntry[] powerChannels;
+    private ShuffleboardLayout channelLayout;
+
+    /* the power distribution module, accessed through its HAL handle so all channels can be read at once */
+    private final int handle;
+    private final int numChannels;
+
+    /* the sampler's own snapshot, and the double buffer that hands it to other readers */
+    private final PowerSnapshot working;
+    private final SnapshotBuffer<PowerSnapshot> snapshots;
+
+    /* uses whichever module (PDP or PDH) is found at the default CAN address */
+    public PowerStatus() {
+        this(PowerDistributionJNI.DEFAULT_MODULE, PowerDistributionJNI.AUTOMATIC_TYPE);
+    }
+
+    public PowerStatus(int module, PowerDistribution.ModuleType moduleType) {
+        this(module, moduleType.value);
+    }
 
-    /* the power distribution panel */
-    private PowerDistribution pdp = new PowerDistribution(0, PowerDistribution.ModuleType.kCTRE);
-    
+    private PowerStatus(int module, int moduleType) {
+        handle = PowerDistributionJNI.initialize(module, moduleType);
+        numChannels = PowerDistributionJNI.getNumChannels(handle);
+        powerChannels = new TelemetryEntry[numChannels];
+        working = newSnapshot();
+        snapshots = new SnapshotBuffer<>(newSnapshot(), newSnapshot());
+    }
+
+    /* the widgets are only queued here and created by WidgetBuilder, they are published once they exist */
     @Override
     public void init() {
+        String title = powerTab.getTitle();
 
         for (PowerDataType p : displayedPower) {
-            powerEntryMap.put(p, powerTab.add(p.getLabel(), p.getDefaultValue())
-            .withWidget(p.getWidgetType())
-            // .withPosition(col++, row)
-            .withSize(p.getWidth(), 1)
-            .withProperties(p.getProperties())
-            .getEntry());
+            WidgetBuilder.add(title, () ->
+                powerEntries[p.ordinal()] = new TelemetryEntry(powerTab.add(p.getLabel(), p.getDefaultValue())
+                .withWidget(p.getWidgetType())
+                // .withPosition(col++, row)
+                .withSize(p.getWidth(), 1)
+                .withProperties(p.getProperties())
+                .getEntry(), p.getDeadband()));
         }
 
-        ShuffleboardLayout layout = powerTab.getLayout("Channel Current",  BuiltInLayouts.kGrid)
-        .withSize(8, 2)
-        .withPosition(0, 1)
-        .withProperties(Map.of(
-            "Label position", "BOTTOM",
-            "Number of Columns", displayedPower.length, // defines how many widgets in a row
-            "Number of Rows", 2));
-
-        int col = 0;
-        for (int i = 0; i < NUM_POWER_CHANNELS; i++) {
-            powerChannels.add(layout.add("Channel " + i, 0)
+        int rows = (numChannels + CHANNELS_PER_ROW - 1) / CHANNELS_PER_ROW;
+        WidgetBuilder.add(title, () ->
+            channelLayout = powerTab.getLayout("Channel Current",  BuiltInLayouts.kGrid)
+            .withSize(CHANNELS_PER_ROW, rows)
+            .withPosition(0, 1)
+            .withProperties(Map.of(
+                "Label position", "BOTTOM",
+                "Number of Columns", CHANNELS_PER_ROW, // defines how many widgets in a row
+                "Number of Rows", rows)));
+
+        for (int i = 0; i < numChannels; i++) {
+            final int channel = i;
+            WidgetBuilder.add(title, () ->
+                powerChannels[channel] = new TelemetryEntry(channelLayout.add("Channel " + channel, 0)
                     .withWidget(BuiltInWidgets.kNumberBar)
-                    // .withPosition(col++, 2)
-                    .withPosition(col, i / 4)
+                    .withPosition(channel % CHANNELS_PER_ROW, channel / CHANNELS_PER_ROW)
                     .withProperties(Map.of("Min", 0, "Max", 10))
                     .withSize(1, 1)
-                    .getEntry());
-            col = col < 3 ? col+1 : 0;
+                    .getEntry(), CURRENT.getDeadband()));
         }
 
         // powerTab.add("power", pdp)
         //     .withWidget(BuiltInWidgets.kPowerDistribution)
-        //     .withSize(4, 4);        
+        //     .withSize(4, 4);
     }
 
     @Override
     public void updateStatus() {
-         // update status of Power Distribution Panel
+        sample();
+        publish(working);
+    }
+
+    /* samples the Power Distribution Panel into the working snapshot and publishes it to the double buffer */
+    public void sample() {
         for (PowerDataType type : displayedPower) {
-            updatePowerStatus(type);
+            working.setValue(type, readValue(type));
         }
 
-        // update current for individual channels
-        for (int i = 0, size = powerChannels.size(); i < size; i++) {
-            updateCurrentStatus(i);
+        // current for all channels in one read
+        readChannelCurrents(working);
+
+        flush();
+    }
+
+    /* stamps the working snapshot and publishes it to the double buffer */
+    @Override
+    public void flush() {
+        working.setTimestamp(RobotController.getFPGATime());
+        snapshots.publish(working);
+    }
+
+    /* one work item for all channel currents followed by one per displayed PowerDataType, see RoundRobinScheduler */
+    @Override
+    public int getWorkItemCount() {
+        return 1 + displayedPower.length;
+    }
+
+    /* the channels are sampled at the rate of CURRENT, the other items at the rate of their PowerDataType */
+    @Override
+    public int getWorkItemPeriod(int index) {
+        return index == 0 ? CURRENT.getPeriodMs() : displayedPower[index - 1].getPeriodMs();
+    }
+
+    @Override
+    public void updateWorkItem(int index) {
+        if (index == 0) {
+            readChannelCurrents(working);
+            publishChannels(working);
+        } else {
+            PowerDataType type = displayedPower[index - 1];
+            working.setValue(type, readValue(type));
+            publishValue(working, type);
         }
+    }
+
+    /* writes the snapshot to the dashboard */
+    public void publish(PowerSnapshot snapshot) {
+        for (PowerDataType type : displayedPower) {
+            publishValue(snapshot, type);
+        }
+
+        publishChannels(snapshot);
 
         // powerEntry.setValue(pdp);
-       
     }
 
-    private void updatePowerStatus(PowerDataType dataType) {
+    private void publishValue(PowerSnapshot snapshot, PowerDataType type) {
+        TelemetryEntry entry = powerEntries[type.ordinal()];
+        if (entry != null) {
+            entry.setDouble(snapshot.getValue(type));
+        }
+    }
+
+    private void publishChannels(PowerSnapshot snapshot) {
+        for (int i = 0; i < numChannels; i++) {
+            TelemetryEntry entry = powerChannels[i];
+            if (entry != null) {
+                entry.setDouble(snapshot.getChannelCurrent(i));
+            }
+        }
+    }
+
+    /* a snapshot sized for this module, for readSnapshot() and readChannelCurrents() */
+    public PowerSnapshot newSnapshot() {
+        return new PowerSnapshot(numChannels);
+    }
+
+    /* 16 for a CTRE PDP, 24 for a REV PDH */
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    /**
+     * Copies the most recently sampled values into dest.  Safe to call from any thread.
+     * @return the generation of the copied snapshot, 0 if nothing has been sampled yet
+     */
+    public long readSnapshot(PowerSnapshot dest) {
+        return snapshots.read(dest);
+    }
+
+    /* the generation of the most recently sampled snapshot, to tell whether readSnapshot() has anything new */
+    public long getGeneration() {
+        return snapshots.getGeneration();
+    }
+
+    /* reads the current of every channel into dest with one call to the module */
+    public void readChannelCurrents(PowerSnapshot dest) {
+        PowerDistributionJNI.getAllCurrents(handle, dest.getChannelCurrents());
+    }
 
-        double value = 0.0;
+    /* reads one value from the module */
+    public double readValue(PowerDataType dataType) {
         switch (dataType) {
             case VOLTAGE:
-                value = pdp.getVoltage();
-                break;
+                return PowerDistributionJNI.getVoltage(handle);
             case TEMP:
-                value = pdp.getTemperature();
-                break;
+                return PowerDistributionJNI.getTemperature(handle);
             case CURRENT:
-                value = pdp.getTotalCurrent();
-                break;
+                return PowerDistributionJNI.getTotalCurrent(handle);
             case ENERGY:
-                value = pdp.getTotalEnergy();
-                break;
+                return PowerDistributionJNI.getTotalEnergy(handle);
             default:
                 System.err.println("Unsupported PowerDataType : " + dataType);
-                return;
-        }
-        powerEntryMap.get(dataType).setDouble(value);
-    }
-
-    private void updateCurrentStatus(int channel) {
-        if (channel < powerChannels.size()) {
-            powerChannels.get(channel).setDouble(pdp.getCurrent(channel));
-        } else {
-            System.err.println("Invalid channel: " + channel);
+                return 0.0;
         }
     }
 }
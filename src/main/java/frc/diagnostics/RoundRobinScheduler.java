@@ -0,0 +1,260 @@
+package frc.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * RoundRobinScheduler spreads the work items of the wrapped diagnostics evenly across the robot
+ * loop cycles between two refreshes, instead of refreshing everything in one cycle.  Each item is
+ * refreshed at its own period (see DiagnosticsIF.getWorkItemPeriod()), so fast changing values
+ * can be sampled every loop while slow ones are read once a second or only once.  Each cycle it
+ * refreshes the items that are due, in round robin order, and stops early once the time budget
+ * for the cycle is used up.  Items that were due but didn't fit are deferred to the next cycle;
+ * items that fall a whole period behind are skipped.  updateStatus() must be called every cycle.
+ * With setLoopTiming() the time spent in each wrapped diagnostic per cycle is recorded as a phase.
+ * setThrottle() stretches the period of every item that isn't essential, see CANMonitor.
+ * reschedule() re-reads every item's period, after a DiagnosticsProfiles switch.
+ */
+public class RoundRobinScheduler implements DiagnosticsIF {
+
+    /* the period of a work item that is refreshed once and then never again */
+    public static final int RUN_ONCE = -1;
+    /* the period of a work item that isn't refreshed until it is given another period and reschedule() is called */
+    public static final int DISABLED = -2;
+
+    private final DiagnosticsIF[] diagnostics;
+    private final double loopPeriod;
+    private final int refreshCycles;
+    private final long budgetNanos;
+
+    private final ShuffleboardTab summaryTab = Shuffleboard.getTab("Summary");
+    private NetworkTableEntry deferredEntry;
+    private NetworkTableEntry skippedEntry;
+
+    /* flattened work items: owner index into diagnostics, the owner's item index, its period and the cycle it is next due */
+    private int[] itemOwner;
+    private int[] itemIndex;
+    private long[] periodCycles;
+    private long[] nextDue;
+    /* the nextDue each item was last counted as deferred for, so a refresh that waits several cycles counts once */
+    private long[] deferredDue;
+    private boolean[] essential;
+    private boolean[] ownerRan;
+
+    private long cycle;
+    private int cursor;
+
+    private long deferredCount;
+    private long skippedCount;
+
+    /* the periods of items that aren't essential are multiplied by this, set from another thread */
+    private volatile int throttle = 1;
+    private volatile boolean rescheduleRequested;
+
+    /* optional per diagnostic timing, the time each owner spent in the current cycle */
+    private LoopTiming loopTiming;
+    private int[] ownerPhase;
+    private long[] ownerNanos;
+
+    /**
+     * @param loopPeriod the robot loop period in seconds
+     * @param refreshPeriod the period in seconds of the work items that don't ask for their own
+     * @param budgetNanos the time allowed for diagnostics per cycle, at least one item runs every cycle
+     * @param diagnostics the diagnostics to schedule
+     */
+    public RoundRobinScheduler(double loopPeriod, double refreshPeriod, long budgetNanos, DiagnosticsIF... diagnostics) {
+        this.diagnostics = diagnostics;
+        this.loopPeriod = loopPeriod;
+        this.refreshCycles = toCycles(refreshPeriod);
+        this.budgetNanos = budgetNanos;
+    }
+
+    /* work items are only known after the wrapped diagnostics have been initialized */
+    @Override
+    public void init() {
+        for (DiagnosticsIF d : diagnostics) {
+            d.init();
+        }
+
+        WidgetBuilder.add(summaryTab.getTitle(), () ->
+            deferredEntry = summaryTab
+              .add("Diag Deferred", 0)
+              .withWidget(BuiltInWidgets.kTextView)
+              .getEntry());
+        WidgetBuilder.add(summaryTab.getTitle(), () ->
+            skippedEntry = summaryTab
+              .add("Diag Skipped", 0)
+              .withWidget(BuiltInWidgets.kTextView)
+              .getEntry());
+
+        List<int[]> items = new ArrayList<>();
+        for (int owner = 0; owner < diagnostics.length; owner++) {
+            for (int i = 0, count = diagnostics[owner].getWorkItemCount(); i < count; i++) {
+                items.add(new int[] { owner, i });
+            }
+        }
+
+        int size = items.size();
+        itemOwner = new int[size];
+        itemIndex = new int[size];
+        periodCycles = new long[size];
+        nextDue = new long[size];
+        deferredDue = new long[size];
+        Arrays.fill(deferredDue, -1);
+        essential = new boolean[size];
+        ownerRan = new boolean[diagnostics.length];
+        ownerNanos = new long[diagnostics.length];
+        for (int i = 0; i < size; i++) {
+            itemOwner[i] = items.get(i)[0];
+            itemIndex[i] = items.get(i)[1];
+        }
+        scheduleAll();
+    }
+
+    /* reads the period of every item and schedules its next refresh from the current cycle */
+    private void scheduleAll() {
+        final int size = nextDue.length;
+        for (int i = 0; i < size; i++) {
+            essential[i] = diagnostics[itemOwner[i]].isEssentialWorkItem(itemIndex[i]);
+
+            int periodMs = diagnostics[itemOwner[i]].getWorkItemPeriod(itemIndex[i]);
+            if (periodMs == RUN_ONCE) {
+                periodCycles[i] = Long.MAX_VALUE;
+                nextDue[i] = cycle;
+            } else if (periodMs == DISABLED) {
+                periodCycles[i] = Long.MAX_VALUE;
+                nextDue[i] = Long.MAX_VALUE;
+            } else {
+                periodCycles[i] = periodMs == 0 ? refreshCycles : toCycles(periodMs / 1000.0);
+                // stagger the first refresh so items are spread evenly across their period
+                nextDue[i] = cycle + (long) i * periodCycles[i] / size;
+            }
+        }
+    }
+
+    /**
+     * Records the time each wrapped diagnostic takes per cycle in timing, one phase per diagnostic.
+     * Must be called before init() of both.
+     */
+    public void setLoopTiming(LoopTiming timing, long budgetNanos) {
+        this.loopTiming = timing;
+        this.ownerPhase = new int[diagnostics.length];
+        for (int owner = 0; owner < diagnostics.length; owner++) {
+            ownerPhase[owner] = timing.addPhase("Diag " + diagnostics[owner].getClass().getSimpleName(), budgetNanos);
+        }
+    }
+
+    private int toCycles(double period) {
+        return Math.max(1, (int) Math.round(period / loopPeriod));
+    }
+
+    /* runs one scheduler cycle, call once per robot loop */
+    @Override
+    public void updateStatus() {
+        final int size = nextDue.length;
+        if (size == 0) {
+            // nothing to schedule
+            return;
+        }
+        final long start = System.nanoTime();
+        final int factor = throttle;
+        if (rescheduleRequested) {
+            rescheduleRequested = false;
+            scheduleAll();
+        }
+        int lastRun = -1;
+
+        for (int k = 0; k < size; k++) {
+            int i = (cursor + k) % size;
+            if (nextDue[i] > cycle) {
+                continue;
+            }
+
+            if (lastRun >= 0 && System.nanoTime() - start >= budgetNanos) {
+                if (deferredDue[i] != nextDue[i]) {
+                    deferredDue[i] = nextDue[i];
+                    deferredCount++;
+                }
+                continue;
+            }
+
+            long itemStart = System.nanoTime();
+            diagnostics[itemOwner[i]].updateWorkItem(itemIndex[i]);
+            ownerNanos[itemOwner[i]] += System.nanoTime() - itemStart;
+            ownerRan[itemOwner[i]] = true;
+            lastRun = i;
+
+            long period = periodCycles[i];
+            if (period == Long.MAX_VALUE) {
+                nextDue[i] = Long.MAX_VALUE;
+                continue;
+            }
+            if (!essential[i]) {
+                period *= factor;
+            }
+            long late = cycle - nextDue[i];
+            if (late >= period) {
+                skippedCount += late / period;
+            }
+            nextDue[i] += period * (late / period + 1);
+        }
+
+        // start the next cycle with whatever got deferred
+        if (lastRun >= 0) {
+            cursor = (lastRun + 1) % size;
+        }
+
+        for (int owner = 0; owner < diagnostics.length; owner++) {
+            if (ownerRan[owner]) {
+                long flushStart = System.nanoTime();
+                diagnostics[owner].flush();
+                if (loopTiming != null) {
+                    loopTiming.recordNanos(ownerPhase[owner], ownerNanos[owner] + System.nanoTime() - flushStart);
+                }
+                ownerNanos[owner] = 0;
+                ownerRan[owner] = false;
+            }
+        }
+
+        if (cycle % refreshCycles == 0) {
+            if (deferredEntry != null) {
+                deferredEntry.setDouble(deferredCount);
+            }
+            if (skippedEntry != null) {
+                skippedEntry.setDouble(skippedCount);
+            }
+        }
+        cycle++;
+    }
+
+    /* stretches the period of the items that aren't essential by factor from their next refresh on, 1 for the full rate */
+    @Override
+    public void setThrottle(int factor) {
+        throttle = Math.max(1, factor);
+        for (DiagnosticsIF d : diagnostics) {
+            d.setThrottle(factor);
+        }
+    }
+
+    /* re-reads the period of every work item at the start of the next cycle, safe to call from any thread */
+    @Override
+    public void reschedule() {
+        rescheduleRequested = true;
+    }
+
+    /* the number of due refreshes pushed to a later cycle because the budget was used up, each counted once however long it waited */
+    public long getDeferredCount() {
+        return deferredCount;
+    }
+
+    /* the number of refreshes that were dropped because an item fell a whole period behind */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+}
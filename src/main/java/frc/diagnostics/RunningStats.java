@@ -0,0 +1,59 @@
+package frc.diagnostics;
+
+/**
+ * RunningStats keeps the min, max, mean and variance of every sample added since the last
+ * clear(), using Welford's update so it stays accurate over a whole match.
+ */
+public class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min;
+    private double max;
+
+    public RunningStats() {
+        clear();
+    }
+
+    public void clear() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? 0 : max;
+    }
+}
@@ -0,0 +1,37 @@
+package frc.diagnostics;
+
+/**
+ * Snapshot is the base class for the diagnostic values read in one sampling pass.
+ * Every published snapshot carries a generation number and the FPGA time (microseconds)
+ * it was taken at, so a reader can tell whether it is looking at new data.
+ */
+public abstract class Snapshot<S extends Snapshot<S>> {
+
+    private long generation;
+    private long timestamp;
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    /* copies all values (including the stamps) from other into this snapshot, must not allocate */
+    public void copyFrom(S other) {
+        this.generation = other.getGeneration();
+        this.timestamp = other.getTimestamp();
+        copyValuesFrom(other);
+    }
+
+    protected abstract void copyValuesFrom(S other);
+}
@@ -0,0 +1,63 @@
+package frc.diagnostics;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * SnapshotBuffer is a double buffer between one writer (the sampler) and any number of readers.
+ * The writer fills the back buffer and flips it to the front by bumping the generation, so it
+ * never waits for a reader.  Readers copy the front buffer and retry if the writer flipped
+ * while they were copying, so they always end up with a consistent snapshot.
+ */
+public class SnapshotBuffer<S extends Snapshot<S>> {
+
+    private final Snapshot<S>[] buffers;
+
+    /* the front buffer is buffers[generation & 1] */
+    private volatile long generation;
+
+    @SuppressWarnings("unchecked")
+    public SnapshotBuffer(S first, S second) {
+        buffers = new Snapshot[] { first, second };
+    }
+
+    /**
+     * Copies the writer's working snapshot into the back buffer and makes it the front buffer.
+     * Must only be called from a single writer thread.
+     * @param source the snapshot the writer sampled into
+     * @return the generation stamped on the published snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public long publish(S source) {
+        long next = generation + 1;
+        S back = (S) buffers[(int) (next & 1)];
+
+        // keep the writes below from becoming visible before the previous flip
+        VarHandle.storeStoreFence();
+        back.copyFrom(source);
+        back.setGeneration(next);
+        source.setGeneration(next);
+        generation = next;
+        return next;
+    }
+
+    /**
+     * Copies the most recently published snapshot into dest.
+     * @param dest the reader's own snapshot
+     * @return the generation of the copied snapshot, 0 if nothing has been published yet
+     */
+    @SuppressWarnings("unchecked")
+    public long read(S dest) {
+        while (true) {
+            long current = generation;
+            dest.copyFrom((S) buffers[(int) (current & 1)]);
+            VarHandle.loadLoadFence();
+            if (generation == current) {
+                return current;
+            }
+        }
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+}
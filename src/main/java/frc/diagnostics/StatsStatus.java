@@ -0,0 +1,224 @@
+package frc.diagnostics;
+
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * StatsStatus keeps running statistics of the motor and power values so the "Stats" tab can show
+ * sustained versus peak load without sending every sample off the robot.  sample() runs every loop
+ * and feeds each new MotorUpdate and PowerStatus snapshot into a 1 second window, a 10 second
+ * window, the whole match and a p95 estimate per channel; publish() sends one number array per
+ * channel, laid out as described by the "Stats Columns" entry.  A motor channel only takes samples
+ * while the active DiagnosticsProfiles profile samples its MotorDataType.  Both are work items so
+ * they run on whichever thread refreshes the diagnostics.
+ */
+public class StatsStatus implements DiagnosticsIF {
+
+    private static final String[] COLUMNS = {
+        "1s min", "1s max", "1s mean", "1s std",
+        "10s min", "10s max", "10s mean", "10s std",
+        "match min", "match max", "match mean", "match std",
+        "p95" };
+
+    /* as fast as the snapshots can change */
+    private static final int SAMPLE_PERIOD_MS = 20;
+
+    /* the per motor channels, in the order they are sampled */
+    private static final String[] MOTOR_CHANNELS = { "current", "temp", "velocity" };
+
+    /* the statistics of one channel */
+    private static class ChannelStats {
+        final WindowedStats shortWindow = new WindowedStats(1.0, 10);
+        final WindowedStats longWindow = new WindowedStats(10.0, 10);
+        final RunningStats match = new RunningStats();
+        final P2Quantile p95 = new P2Quantile(0.95);
+        final double[] values = new double[COLUMNS.length];
+        /* null until WidgetBuilder created the widget */
+        NetworkTableEntry entry;
+
+        void add(long timestamp, double value) {
+            shortWindow.add(timestamp, value);
+            longWindow.add(timestamp, value);
+            match.add(value);
+            p95.add(value);
+        }
+
+        void clearMatch() {
+            match.clear();
+            p95.clear();
+        }
+
+        void publish() {
+            NetworkTableEntry e = entry;
+            if (e == null) {
+                return;
+            }
+            int i = 0;
+            values[i++] = shortWindow.getMin();
+            values[i++] = shortWindow.getMax();
+            values[i++] = shortWindow.getMean();
+            values[i++] = shortWindow.getStdDev();
+            values[i++] = longWindow.getMin();
+            values[i++] = longWindow.getMax();
+            values[i++] = longWindow.getMean();
+            values[i++] = longWindow.getStdDev();
+            values[i++] = match.getMin();
+            values[i++] = match.getMax();
+            values[i++] = match.getMean();
+            values[i++] = match.getStdDev();
+            values[i++] = p95.getValue();
+            e.setDoubleArray(values);
+        }
+    }
+
+    private final ShuffleboardTab statsTab = Shuffleboard.getTab("Stats");
+
+    private final Supplier<MotorUpdate> motorUpdateSupplier;
+    private final PowerStatus powerStatus;
+
+    private MotorUpdate motorUpdate;
+    private MotorSnapshot motorSnapshot;
+    private PowerSnapshot powerSnapshot;
+    private long motorGeneration;
+    private long powerGeneration;
+    private volatile boolean clearMatchRequested;
+
+    /* indexed by [motor * MOTOR_CHANNELS.length + channel] */
+    private ChannelStats[] motorStats = new ChannelStats[0];
+    /* voltage, total current, then one per power channel */
+    private ChannelStats[] powerStats = new ChannelStats[0];
+
+    /**
+     * @param motorUpdate supplies the MotorUpdate of a Diagnostics layout, which only exists once the
+     *                    layout's init() has run, so this has to be initialized after the layout
+     * @param powerStatus the power distribution module
+     */
+    public StatsStatus(Supplier<MotorUpdate> motorUpdate, PowerStatus powerStatus) {
+        this.motorUpdateSupplier = motorUpdate;
+        this.powerStatus = powerStatus;
+    }
+
+    @Override
+    public void init() {
+        WidgetBuilder.add(statsTab.getTitle(), () ->
+            statsTab.add("Stats Columns", COLUMNS)
+              .withWidget(BuiltInWidgets.kTextView)
+              .withSize(2, 1));
+
+        motorUpdate = motorUpdateSupplier.get();
+        if (motorUpdate != null) {
+            motorSnapshot = new MotorSnapshot(motorUpdate.getNumMotors());
+            motorStats = new ChannelStats[motorUpdate.getNumMotors() * MOTOR_CHANNELS.length];
+            for (int i = 0; i < motorUpdate.getNumMotors(); i++) {
+                String shortName = motorUpdate.getMotor(i).getShortName();
+                for (int c = 0; c < MOTOR_CHANNELS.length; c++) {
+                    motorStats[i * MOTOR_CHANNELS.length + c] = newChannel(shortName + " " + MOTOR_CHANNELS[c]);
+                }
+            }
+        }
+
+        powerSnapshot = powerStatus.newSnapshot();
+        powerStats = new ChannelStats[2 + powerStatus.getNumChannels()];
+        powerStats[0] = newChannel("PDP voltage");
+        powerStats[1] = newChannel("PDP current");
+        for (int channel = 0; channel < powerStatus.getNumChannels(); channel++) {
+            powerStats[2 + channel] = newChannel("Channel " + channel);
+        }
+    }
+
+    private ChannelStats newChannel(String name) {
+        ChannelStats stats = new ChannelStats();
+        WidgetBuilder.add(statsTab.getTitle(), () ->
+            stats.entry = statsTab.add(name, stats.values)
+              .withWidget(BuiltInWidgets.kTextView)
+              .withSize(2, 1)
+              .getEntry());
+        return stats;
+    }
+
+    /* adds the values of any new snapshot to the statistics */
+    public void sample() {
+        if (clearMatchRequested) {
+            clearMatchRequested = false;
+            for (ChannelStats stats : motorStats) {
+                stats.clearMatch();
+            }
+            for (ChannelStats stats : powerStats) {
+                stats.clearMatch();
+            }
+        }
+
+        if (motorUpdate != null && motorUpdate.getGeneration() != motorGeneration) {
+            motorGeneration = motorUpdate.readSnapshot(motorSnapshot);
+            long timestamp = motorSnapshot.getTimestamp();
+            for (int i = 0, size = motorSnapshot.getNumMotors(); i < size; i++) {
+                int base = i * MOTOR_CHANNELS.length;
+                // a value left from before its type was turned off isn't a new sample
+                if (motorUpdate.isSampled(i, MotorDataType.PDP_CURRENT)) {
+                    motorStats[base].add(timestamp, motorSnapshot.getPdpCurrent(i));
+                }
+                if (motorUpdate.isSampled(i, MotorDataType.TEMP)) {
+                    motorStats[base + 1].add(timestamp, motorSnapshot.getTemp(i));
+                }
+                if (motorUpdate.isSampled(i, MotorDataType.VELOCITY)) {
+                    motorStats[base + 2].add(timestamp, motorSnapshot.getVelocity(i));
+                }
+            }
+        }
+
+        if (powerSnapshot != null && powerStatus.getGeneration() != powerGeneration) {
+            powerGeneration = powerStatus.readSnapshot(powerSnapshot);
+            long timestamp = powerSnapshot.getTimestamp();
+            powerStats[0].add(timestamp, powerSnapshot.getValue(PowerDataType.VOLTAGE));
+            powerStats[1].add(timestamp, powerSnapshot.getValue(PowerDataType.CURRENT));
+            for (int channel = 2; channel < powerStats.length; channel++) {
+                powerStats[channel].add(timestamp, powerSnapshot.getChannelCurrent(channel - 2));
+            }
+        }
+    }
+
+    /* starts the match statistics over at the next sample(), e.g. at the start of autonomous, safe to call from any thread */
+    public void clearMatch() {
+        clearMatchRequested = true;
+    }
+
+    @Override
+    public void updateStatus() {
+        sample();
+        publish();
+    }
+
+    /* item 0 samples every loop, item 1 publishes at the scheduler's refresh period, see RoundRobinScheduler */
+    @Override
+    public int getWorkItemCount() {
+        return 2;
+    }
+
+    @Override
+    public int getWorkItemPeriod(int index) {
+        return index == 0 ? SAMPLE_PERIOD_MS : 0;
+    }
+
+    @Override
+    public void updateWorkItem(int index) {
+        if (index == 0) {
+            sample();
+        } else {
+            publish();
+        }
+    }
+
+    /* writes the statistics of every channel to the dashboard */
+    public void publish() {
+        for (ChannelStats stats : motorStats) {
+            stats.publish();
+        }
+        for (ChannelStats stats : powerStats) {
+            stats.publish();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package frc.diagnostics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+
+/**
+ * TelemetryEntry wraps a NetworkTableEntry and remembers the last value written to it.
+ * A new value is only written when it moved more than the deadband away from the last one,
+ * or when the entry hasn't been written for KEEP_ALIVE_NANOS.  Every write and every
+ * suppressed write is counted, see TelemetryStatus.
+ */
+public class TelemetryEntry {
+
+    /* an unchanged value is still rewritten this often, so a dashboard that reconnects catches up */
+    public static final long KEEP_ALIVE_NANOS = 5_000_000_000L;
+
+    private static final AtomicLong writeCount = new AtomicLong();
+    private static final AtomicLong suppressedCount = new AtomicLong();
+
+    private final NetworkTableEntry entry;
+    private final double deadband;
+
+    private boolean hasValue;
+    private long lastWriteNanos;
+    private double lastDouble;
+    private boolean lastBoolean;
+    private String lastString;
+
+    /**
+     * @param entry the entry to publish to
+     * @param deadband how far a double value has to move before it is published again
+     */
+    public TelemetryEntry(NetworkTableEntry entry, double deadband) {
+        this.entry = entry;
+        this.deadband = deadband;
+    }
+
+    public void setDouble(double value) {
+        long now = System.nanoTime();
+        if (hasValue && Math.abs(value - lastDouble) <= deadband && !isKeepAliveDue(now)) {
+            suppressedCount.incrementAndGet();
+            return;
+        }
+        entry.setDouble(value);
+        lastDouble = value;
+        written(now);
+    }
+
+    public void setBoolean(boolean value) {
+        long now = System.nanoTime();
+        if (hasValue && value == lastBoolean && !isKeepAliveDue(now)) {
+            suppressedCount.incrementAndGet();
+            return;
+        }
+        entry.setBoolean(value);
+        lastBoolean = value;
+        written(now);
+    }
+
+    public void setString(String value) {
+        long now = System.nanoTime();
+        if (hasValue && value.equals(lastString) && !isKeepAliveDue(now)) {
+            suppressedCount.incrementAndGet();
+            return;
+        }
+        entry.setString(value);
+        lastString = value;
+        written(now);
+    }
+
+    public NetworkTableEntry getEntry() {
+        return entry;
+    }
+
+    private boolean isKeepAliveDue(long now) {
+        return now - lastWriteNanos >= KEEP_ALIVE_NANOS;
+    }
+
+    private void written(long now) {
+        hasValue = true;
+        lastWriteNanos = now;
+        writeCount.incrementAndGet();
+    }
+
+    /* the number of values written to NetworkTables */
+    public static long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /* the number of values not written because they were unchanged or inside the deadband */
+    public static long getSuppressedCount() {
+        return suppressedCount.get();
+    }
+}
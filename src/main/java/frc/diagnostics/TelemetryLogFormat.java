@@ -0,0 +1,59 @@
+package frc.diagnostics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * TelemetryLogFormat holds the constants and varint helpers shared by TelemetryLogWriter and
+ * TelemetryLogReader.  It only uses the JDK so the reader runs without WPILib.
+ *
+ * <pre>
+ * file   := FILE_MAGIC:int VERSION:int columns:int (name:UTF scale:double){columns} block*
+ * block  := BLOCK_MAGIC:int rows:int length:int payload[length]
+ * payload:= time column, then each value column, each one encoded as
+ *           zigzag varint of the first value followed by zigzag varint deltas
+ * </pre>
+ * Times are FPGA microseconds, values are stored as round(value * scale), or MISSING for a value
+ * that wasn't sampled, which the writer takes as NaN and the reader gives back as NaN.  The writer fills in
+ * BLOCK_MAGIC after the rest of the block, and the reader stops at the first block without it or
+ * whose payload doesn't decode to exactly length bytes.
+ */
+final class TelemetryLogFormat {
+
+    static final int FILE_MAGIC = 0x544C4F47;  // "TLOG"
+    static final int BLOCK_MAGIC = 0x424C4B31; // "BLK1"
+    /* version 2 added MISSING */
+    static final int VERSION = 2;
+
+    /* a value that wasn't sampled, the deltas wrap around so it encodes like any other value */
+    static final long MISSING = Long.MIN_VALUE;
+
+    /* rows per columnar block, one second at 50 Hz */
+    static final int BLOCK_ROWS = 50;
+
+    /* bytes in a block header, and the most bytes a varint can take */
+    static final int BLOCK_HEADER_BYTES = 12;
+    static final int MAX_VARINT_BYTES = 10;
+
+    private TelemetryLogFormat() {}
+
+    static void putVarLong(ByteBuffer buf, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buf.put((byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        buf.put((byte) zigzag);
+    }
+
+    static long getVarLong(ByteBuffer buf) {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
@@ -0,0 +1,194 @@
+package frc.diagnostics;
+
+import static frc.diagnostics.TelemetryLogFormat.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * TelemetryLogReader decodes a log written by TelemetryLogWriter.  It only needs the JDK, so it
+ * can be run on a laptop straight from the compiled classes:
+ * <pre>
+ *   java -cp build/classes/java/main frc.diagnostics.TelemetryLogReader telemetry.tlog csv > telemetry.csv
+ *   java -cp build/classes/java/main frc.diagnostics.TelemetryLogReader telemetry.tlog summary
+ * </pre>
+ */
+public class TelemetryLogReader {
+
+    /* receives the decoded rows, NaN for a value that wasn't sampled */
+    public interface RowHandler {
+        void row(long timestamp, double[] values) throws IOException;
+    }
+
+    private final ByteBuffer buffer;
+    private final String[] names;
+    private final double[] scales;
+
+    public TelemetryLogReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt() != FILE_MAGIC) {
+            throw new IOException(path + " is not a telemetry log");
+        }
+        int version = buffer.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported telemetry log version " + version);
+        }
+
+        int columns = buffer.getInt();
+        names = new String[columns];
+        scales = new double[columns];
+        for (int c = 0; c < columns; c++) {
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            names[c] = new String(name, StandardCharsets.UTF_8);
+            scales[c] = buffer.getDouble();
+        }
+    }
+
+    public String[] getNames() {
+        return names.clone();
+    }
+
+    /* decodes every block, stops at the end of the file or at a block that was never finished */
+    public void read(RowHandler handler) throws IOException {
+        ByteBuffer buf = buffer.duplicate();
+        long[] times = new long[BLOCK_ROWS];
+        long[] values = new long[names.length * BLOCK_ROWS];
+        double[] row = new double[names.length];
+
+        while (buf.remaining() >= BLOCK_HEADER_BYTES && buf.getInt() == BLOCK_MAGIC) {
+            int rows = buf.getInt();
+            int length = buf.getInt();
+            if (rows <= 0 || rows > BLOCK_ROWS || length <= 0 || length > buf.remaining()) {
+                break;
+            }
+
+            /* a block whose columns don't end exactly where its length says was never finished */
+            ByteBuffer block = buf.slice();
+            block.limit(length);
+            try {
+                getColumn(block, times, 0, rows);
+                for (int c = 0; c < names.length; c++) {
+                    getColumn(block, values, c * BLOCK_ROWS, rows);
+                }
+            } catch (BufferUnderflowException e) {
+                break;
+            }
+            if (block.hasRemaining()) {
+                break;
+            }
+            buf.position(buf.position() + length);
+
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < names.length; c++) {
+                    long value = values[c * BLOCK_ROWS + r];
+                    row[c] = value == MISSING ? Double.NaN : value / scales[c];
+                }
+                handler.row(times[r], row);
+            }
+        }
+    }
+
+    private static void getColumn(ByteBuffer buf, long[] column, int offset, int rows) {
+        long value = 0;
+        for (int r = 0; r < rows; r++) {
+            value += getVarLong(buf);
+            column[offset + r] = value;
+        }
+    }
+
+    /* writes one line per row, times in seconds, values that weren't sampled are left empty */
+    public void exportCsv(Writer out) throws IOException {
+        out.write("time");
+        for (String name : names) {
+            out.write(',');
+            out.write(name);
+        }
+        out.write('\n');
+
+        read((timestamp, values) -> {
+            out.write(Double.toString(timestamp / 1e6));
+            for (double v : values) {
+                out.write(',');
+                if (!Double.isNaN(v)) {
+                    out.write(Double.toString(v));
+                }
+            }
+            out.write('\n');
+        });
+        out.flush();
+    }
+
+    /* writes the duration, row count and min/mean/max of every column, over the rows it was sampled in */
+    public void exportSummary(PrintWriter out) throws IOException {
+        int columns = names.length;
+        double[] min = new double[columns];
+        double[] max = new double[columns];
+        double[] sum = new double[columns];
+        long[] samples = new long[columns];
+        long[] first = { Long.MIN_VALUE };
+        long[] last = { 0 };
+        long[] count = { 0 };
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+
+        read((timestamp, values) -> {
+            if (first[0] == Long.MIN_VALUE) {
+                first[0] = timestamp;
+            }
+            last[0] = timestamp;
+            count[0]++;
+            for (int c = 0; c < columns; c++) {
+                if (Double.isNaN(values[c])) {
+                    continue;
+                }
+                min[c] = Math.min(min[c], values[c]);
+                max[c] = Math.max(max[c], values[c]);
+                sum[c] += values[c];
+                samples[c]++;
+            }
+        });
+
+        double duration = count[0] == 0 ? 0 : (last[0] - first[0]) / 1e6;
+        out.printf("rows: %d, duration: %.2f s, file: %d bytes (%.1f bytes/row)%n",
+            count[0], duration, buffer.limit(), count[0] == 0 ? 0.0 : (double) buffer.limit() / count[0]);
+        out.printf("%-24s %12s %12s %12s%n", "column", "min", "mean", "max");
+        for (int c = 0; c < columns && count[0] > 0; c++) {
+            if (samples[c] == 0) {
+                out.printf("%-24s %12s%n", names[c], "not sampled");
+            } else {
+                out.printf("%-24s %12.3f %12.3f %12.3f%n", names[c], min[c], sum[c] / samples[c], max[c]);
+            }
+        }
+        out.flush();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: TelemetryLogReader <log file> [csv|summary]");
+            System.exit(1);
+        }
+
+        TelemetryLogReader reader = new TelemetryLogReader(Paths.get(args[0]));
+        String mode = args.length > 1 ? args[1] : "summary";
+        if (mode.equals("csv")) {
+            reader.exportCsv(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        } else {
+            reader.exportSummary(new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        }
+    }
+}
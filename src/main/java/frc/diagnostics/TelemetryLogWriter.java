@@ -0,0 +1,133 @@
+package frc.diagnostics;
+
+import static frc.diagnostics.TelemetryLogFormat.*;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * TelemetryLogWriter appends rows of telemetry to a binary log through a memory mapped file.
+ * Rows are collected into columnar blocks of BLOCK_ROWS rows; a full block is delta and varint
+ * encoded straight into the mapping, so append() only quantizes the values into preallocated
+ * arrays and the kernel decides when the pages reach the flash.  See TelemetryLogFormat.
+ */
+public class TelemetryLogWriter implements AutoCloseable {
+
+    /* the file is mapped this many bytes at a time */
+    private static final long MAP_CHUNK = 4L << 20;
+
+    private final FileChannel channel;
+    private final int columns;
+    private final double[] scales;
+    private final int maxBlockBytes;
+
+    private MappedByteBuffer buffer;
+    private long mapStart;
+
+    /* the block being collected, values are column major: [column * BLOCK_ROWS + row] */
+    private final long[] times = new long[BLOCK_ROWS];
+    private final long[] values;
+    private int rows;
+
+    /**
+     * @param path the log file, replaced if it exists
+     * @param names the name of each value column
+     * @param scales each value is stored as round(value * scale)
+     */
+    public TelemetryLogWriter(Path path, String[] names, double[] scales) throws IOException {
+        this.columns = names.length;
+        this.scales = scales.clone();
+        this.values = new long[columns * BLOCK_ROWS];
+        this.maxBlockBytes = BLOCK_HEADER_BYTES + (columns + 1) * BLOCK_ROWS * MAX_VARINT_BYTES;
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map(0);
+
+        buffer.putInt(FILE_MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(columns);
+        for (int c = 0; c < columns; c++) {
+            byte[] name = names[c].getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+            buffer.putDouble(scales[c]);
+        }
+    }
+
+    /**
+     * Adds a row to the current block and encodes the block once it is full.
+     * @param timestamp FPGA time in microseconds
+     * @param row one value per column, NaN for a value that wasn't sampled, not kept
+     */
+    public void append(long timestamp, double[] row) throws IOException {
+        times[rows] = timestamp;
+        for (int c = 0; c < columns; c++) {
+            double value = row[c];
+            values[c * BLOCK_ROWS + rows] = Double.isNaN(value) ? MISSING : Math.round(value * scales[c]);
+        }
+        if (++rows == BLOCK_ROWS) {
+            writeBlock();
+        }
+    }
+
+    /* encodes a partially filled block, so everything appended so far is in the file */
+    public void flush() throws IOException {
+        if (rows > 0) {
+            writeBlock();
+        }
+    }
+
+    /* the number of bytes written to the log */
+    public long size() {
+        return mapStart + buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        buffer.force();
+        channel.truncate(size());
+        channel.close();
+    }
+
+    private void writeBlock() throws IOException {
+        if (buffer.remaining() < maxBlockBytes) {
+            map(size());
+        }
+
+        /* the magic goes in last, so a block cut short by a crash doesn't look finished */
+        int blockStart = buffer.position();
+        buffer.putInt(0);
+        buffer.putInt(rows);
+        buffer.putInt(0);
+        int payloadStart = buffer.position();
+
+        putColumn(times, 0);
+        for (int c = 0; c < columns; c++) {
+            putColumn(values, c * BLOCK_ROWS);
+        }
+
+        buffer.putInt(blockStart + 8, buffer.position() - payloadStart);
+        buffer.putInt(blockStart, BLOCK_MAGIC);
+        rows = 0;
+    }
+
+    private void putColumn(long[] column, int offset) {
+        long previous = 0;
+        for (int r = 0; r < rows; r++) {
+            long value = column[offset + r];
+            putVarLong(buffer, value - previous);
+            previous = value;
+        }
+    }
+
+    private void map(long position) throws IOException {
+        mapStart = position;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, MAP_CHUNK);
+    }
+}
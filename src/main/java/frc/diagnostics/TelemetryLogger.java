@@ -0,0 +1,189 @@
+package frc.diagnostics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * TelemetryLogger logs the values MotorUpdate and PowerStatus already sampled to a
+ * TelemetryLogWriter, one row per call to log().  It reads their snapshots, so it doesn't add
+ * any CAN or JNI reads of its own.  A motor value the active DiagnosticsProfiles profile doesn't
+ * sample is logged as missing, not as the stale value left in the snapshot.
+ * Logs go to the logs directory, see TelemetryLogReader.
+ * A log is closed and a new one started once it reaches maxFileBytes, and before a log is started
+ * the oldest ones are deleted so at most maxFiles logs of at most maxTotalBytes together are kept.
+ * A shutdown hook closes the current log, so it is complete after a redeploy or restart.
+ */
+public class TelemetryLogger implements AutoCloseable {
+
+    private final MotorUpdate motorUpdate;
+    private final PowerStatus powerStatus;
+    private final MotorSnapshot motorSnapshot;
+    private final PowerSnapshot powerSnapshot;
+
+    private static final String PREFIX = "telemetry-";
+    private static final String SUFFIX = ".tlog";
+
+    private final File directory = new File(Filesystem.getOperatingDirectory(), "logs");
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final long maxTotalBytes;
+
+    private final String[] names;
+    private final double[] scales;
+    private final double[] row;
+    private TelemetryLogWriter writer;
+
+    /**
+     * @param maxFileBytes a log is closed and a new one started once it is this long
+     * @param maxFiles the most logs kept, including the one being written
+     * @param maxTotalBytes the most bytes all the logs together may take, including the one being written
+     */
+    public TelemetryLogger(MotorUpdate motorUpdate, PowerStatus powerStatus, long maxFileBytes, int maxFiles, long maxTotalBytes) {
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.maxTotalBytes = maxTotalBytes;
+        this.motorUpdate = motorUpdate;
+        this.powerStatus = powerStatus;
+        this.motorSnapshot = new MotorSnapshot(motorUpdate.getNumMotors());
+        this.powerSnapshot = powerStatus.newSnapshot();
+
+        List<String> names = new ArrayList<>();
+        List<Double> scales = new ArrayList<>();
+        for (int i = 0; i < motorUpdate.getNumMotors(); i++) {
+            String name = motorUpdate.getMotor(i).getShortName();
+            addColumn(names, scales, name + ".faults", 1);
+            addColumn(names, scales, name + ".stickyFaults", 1);
+            addColumn(names, scales, name + ".temp", 10);
+            addColumn(names, scales, name + ".position", 1000);
+            addColumn(names, scales, name + ".velocity", 10);
+        }
+        for (PowerDataType type : PowerDataType.values()) {
+            addColumn(names, scales, "pdp." + type.name().toLowerCase(), 100);
+        }
+        for (int channel = 0; channel < powerSnapshot.getNumChannels(); channel++) {
+            addColumn(names, scales, "pdp.channel" + channel, 100);
+        }
+        this.names = names.toArray(new String[0]);
+        this.scales = scales.stream().mapToDouble(Double::doubleValue).toArray();
+        row = new double[names.size()];
+
+        open();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                System.err.println("Telemetry log: " + e);
+            }
+        }, "Telemetry Log Close"));
+    }
+
+    /* starts a new log, after making room for it */
+    private void open() {
+        directory.mkdirs();
+        prune();
+        File file = new File(directory, PREFIX + System.currentTimeMillis() + SUFFIX);
+        try {
+            writer = new TelemetryLogWriter(file.toPath(), names, scales);
+        } catch (IOException e) {
+            System.err.println("Telemetry log disabled: " + e);
+            writer = null;
+        }
+    }
+
+    /* deletes the oldest logs until a new one of maxFileBytes fits within maxFiles and maxTotalBytes */
+    private void prune() {
+        File[] logs = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (logs == null) {
+            return;
+        }
+        Arrays.sort(logs, Comparator.comparingLong(File::lastModified));
+
+        long total = 0;
+        for (File log : logs) {
+            total += log.length();
+        }
+        int count = logs.length;
+        for (int i = 0; i < logs.length && (count >= maxFiles || total + maxFileBytes > maxTotalBytes); i++) {
+            long length = logs[i].length();
+            if (logs[i].delete()) {
+                count--;
+                total -= length;
+                System.out.println("Telemetry log: deleted " + logs[i].getName());
+            }
+        }
+    }
+
+    private static void addColumn(List<String> names, List<Double> scales, String name, double scale) {
+        names.add(name);
+        scales.add(scale);
+    }
+
+    /* appends the latest snapshots as one row, call at the logging rate */
+    public synchronized void log() {
+        if (writer == null) {
+            return;
+        }
+
+        motorUpdate.readSnapshot(motorSnapshot);
+        powerStatus.readSnapshot(powerSnapshot);
+
+        int col = 0;
+        for (int i = 0, size = motorSnapshot.getNumMotors(); i < size; i++) {
+            row[col++] = sampled(i, MotorDataType.FAULTS, motorSnapshot.getFaults(i));
+            row[col++] = sampled(i, MotorDataType.STICKY_FAULTS, motorSnapshot.getStickyFaults(i));
+            row[col++] = sampled(i, MotorDataType.TEMP, motorSnapshot.getTemp(i));
+            row[col++] = sampled(i, MotorDataType.POSITION, motorSnapshot.getPosition(i));
+            row[col++] = sampled(i, MotorDataType.VELOCITY, motorSnapshot.getVelocity(i));
+        }
+        for (PowerDataType type : PowerDataType.values()) {
+            row[col++] = powerSnapshot.getValue(type);
+        }
+        for (int channel = 0, size = powerSnapshot.getNumChannels(); channel < size; channel++) {
+            row[col++] = powerSnapshot.getChannelCurrent(channel);
+        }
+
+        try {
+            writer.append(RobotController.getFPGATime(), row);
+            if (writer.size() >= maxFileBytes) {
+                writer.close();
+                open();
+            }
+        } catch (IOException e) {
+            System.err.println("Telemetry log disabled: " + e);
+            writer = null;
+        }
+    }
+
+    /* the value, or NaN for missing if the motor's type isn't sampled */
+    private double sampled(int motor, MotorDataType type, double value) {
+        return motorUpdate.isSampled(motor, type) ? value : Double.NaN;
+    }
+
+    /* makes everything logged so far readable, e.g. when the robot is disabled */
+    public synchronized void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("Telemetry log disabled: " + e);
+            writer = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package frc.diagnostics;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * TelemetryStatus shows how many NetworkTables writes the TelemetryEntry deadbands saved.
+ */
+public class TelemetryStatus implements DiagnosticsIF {
+
+    private final ShuffleboardTab summaryTab = Shuffleboard.getTab("Summary");
+
+    private NetworkTableEntry writeEntry;
+    private NetworkTableEntry suppressedEntry;
+
+    @Override
+    public void init() {
+        WidgetBuilder.add(summaryTab.getTitle(), () ->
+            writeEntry = summaryTab
+              .add("NT Writes", 0)
+              .withWidget(BuiltInWidgets.kTextView)
+              .getEntry());
+        WidgetBuilder.add(summaryTab.getTitle(), () ->
+            suppressedEntry = summaryTab
+              .add("NT Suppressed", 0)
+              .withWidget(BuiltInWidgets.kTextView)
+              .getEntry());
+    }
+
+    @Override
+    public void updateStatus() {
+        NetworkTableEntry entry = writeEntry;
+        if (entry != null) {
+            entry.setDouble(TelemetryEntry.getWriteCount());
+        }
+        entry = suppressedEntry;
+        if (entry != null) {
+            entry.setDouble(TelemetryEntry.getSuppressedCount());
+        }
+    }
+}
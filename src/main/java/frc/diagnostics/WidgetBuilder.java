@@ -0,0 +1,84 @@
+package frc.diagnostics;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * WidgetBuilder defers the creation of Shuffleboard widgets so robotInit() doesn't have to wait for
+ * them.  A diagnostic queues one step per widget (or small group of widgets) under the title of the
+ * tab it goes to, and build() runs a bounded number of steps per robot loop.  The tab selected in
+ * the dashboard is built first; the others follow in the order they were queued.  This only
+ * orders the work, it isn't lazy: every tab is built whether or not it is ever selected, so no
+ * widget is lost.  Diagnostics must skip entries whose step hasn't run yet.
+ */
+public final class WidgetBuilder {
+
+    /* the tab Shuffleboard is showing, written by Shuffleboard.selectTab() and the dashboard */
+    private static final NetworkTableEntry selectedTab =
+        NetworkTableInstance.getDefault().getEntry("/Shuffleboard/.metadata/Selected");
+
+    /* steps waiting to run, by tab title, in the order the tabs were first queued */
+    private static final Map<String, ArrayDeque<Runnable>> pending = new LinkedHashMap<>();
+    private static int pendingCount;
+
+    private WidgetBuilder() {}
+
+    /* queues a step that creates widgets in the named tab */
+    public static void add(String tab, Runnable step) {
+        pending.computeIfAbsent(tab, t -> new ArrayDeque<>()).addLast(step);
+        pendingCount++;
+    }
+
+    /**
+     * Runs up to maxSteps steps, those of the selected tab first.  Call from the robot loop.
+     * @return the number of steps still waiting
+     */
+    public static int build(int maxSteps) {
+        if (pendingCount == 0) {
+            return 0;
+        }
+
+        String selected = selectedTab.getString("");
+        for (int i = 0; i < maxSteps && pendingCount > 0; i++) {
+            ArrayDeque<Runnable> steps = pending.get(selected);
+            if (steps == null) {
+                steps = nextTab();
+            }
+            runStep(steps);
+        }
+        return pendingCount;
+    }
+
+    /* runs every step still waiting */
+    public static void buildAll() {
+        while (pendingCount > 0) {
+            runStep(nextTab());
+        }
+    }
+
+    public static boolean isDone() {
+        return pendingCount == 0;
+    }
+
+    public static int getPendingCount() {
+        return pendingCount;
+    }
+
+    private static ArrayDeque<Runnable> nextTab() {
+        Iterator<ArrayDeque<Runnable>> it = pending.values().iterator();
+        return it.next();
+    }
+
+    private static void runStep(ArrayDeque<Runnable> steps) {
+        steps.pollFirst().run();
+        pendingCount--;
+        if (steps.isEmpty()) {
+            pending.values().remove(steps);
+        }
+    }
+}
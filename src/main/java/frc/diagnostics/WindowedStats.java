@@ -0,0 +1,151 @@
+package frc.diagnostics;
+
+import java.util.Arrays;
+
+/**
+ * WindowedStats keeps the min, max, mean and variance of the samples added over a sliding time
+ * window.  The window is split into a fixed number of buckets, each holding the aggregates of its
+ * samples; adding a sample only touches the current bucket, and a bucket leaving the window is
+ * subtracted from the running totals, so add() is O(1).  Min and max scan the buckets when they
+ * are read.  All state is preallocated.
+ */
+public class WindowedStats {
+
+    private final long bucketMicros;
+    private final int numBuckets;
+
+    private final long[] counts;
+    private final double[] sums;
+    private final double[] sumSquares;
+    private final double[] mins;
+    private final double[] maxes;
+
+    /* totals of every bucket in the window */
+    private long count;
+    private double sum;
+    private double sumSquare;
+
+    /* sums are kept relative to the first sample to limit the loss of precision in the variance */
+    private double shift;
+    private boolean shiftSet;
+
+    private int current;
+    private long currentEnd = Long.MIN_VALUE;
+
+    /**
+     * @param windowSeconds the length of the window
+     * @param numBuckets how many pieces the window is split into, the window slides one piece at a time
+     */
+    public WindowedStats(double windowSeconds, int numBuckets) {
+        this.numBuckets = numBuckets;
+        this.bucketMicros = Math.max(1, (long) (windowSeconds * 1e6 / numBuckets));
+        counts = new long[numBuckets];
+        sums = new double[numBuckets];
+        sumSquares = new double[numBuckets];
+        mins = new double[numBuckets];
+        maxes = new double[numBuckets];
+        clear();
+    }
+
+    /* forgets every sample */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(sums, 0);
+        Arrays.fill(sumSquares, 0);
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxes, Double.NEGATIVE_INFINITY);
+        count = 0;
+        sum = 0;
+        sumSquare = 0;
+        shiftSet = false;
+        currentEnd = Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds a sample, timestamps must not go backwards.
+     * @param timestamp the FPGA time of the sample in microseconds
+     */
+    public void add(long timestamp, double value) {
+        advance(timestamp);
+        if (!shiftSet) {
+            shift = value;
+            shiftSet = true;
+        }
+
+        double v = value - shift;
+        counts[current]++;
+        sums[current] += v;
+        sumSquares[current] += v * v;
+        if (value < mins[current]) {
+            mins[current] = value;
+        }
+        if (value > maxes[current]) {
+            maxes[current] = value;
+        }
+
+        count++;
+        sum += v;
+        sumSquare += v * v;
+    }
+
+    /* drops the buckets that slid out of the window by timestamp */
+    private void advance(long timestamp) {
+        if (currentEnd == Long.MIN_VALUE || timestamp - currentEnd >= bucketMicros * numBuckets) {
+            // first sample, or every bucket is stale
+            if (count > 0) {
+                clear();
+            }
+            currentEnd = timestamp + bucketMicros;
+            return;
+        }
+
+        while (timestamp >= currentEnd) {
+            current = (current + 1) % numBuckets;
+            count -= counts[current];
+            sum -= sums[current];
+            sumSquare -= sumSquares[current];
+            counts[current] = 0;
+            sums[current] = 0;
+            sumSquares[current] = 0;
+            mins[current] = Double.POSITIVE_INFINITY;
+            maxes[current] = Double.NEGATIVE_INFINITY;
+            currentEnd += bucketMicros;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : shift + sum / count;
+    }
+
+    public double getVariance() {
+        if (count < 2) {
+            return 0;
+        }
+        double mean = sum / count;
+        return Math.max(0, (sumSquare - mean * sum) / (count - 1));
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < numBuckets; i++) {
+            min = Math.min(min, mins[i]);
+        }
+        return count == 0 ? 0 : min;
+    }
+
+    public double getMax() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < numBuckets; i++) {
+            max = Math.max(max, maxes[i]);
+        }
+        return count == 0 ? 0 : max;
+    }
+}
@@ -0,0 +1,6 @@
+package frc.helpers;
+
+/* a Lambda taking a boolean without boxing it */
+public interface BooleanLambda<T> {
+    void run(T target, boolean value);
+}
@@ -0,0 +1,25 @@
+package frc.helpers;
+
+/* a LambdaRunner holding a boolean without boxing it, can be passed to Timer as a trigger */
+public class BooleanLambdaRunner<T> implements Runnable {
+    private BooleanLambda<T> lambda;
+    private T target;
+    private boolean value;
+
+    public BooleanLambdaRunner(T target, boolean val, BooleanLambda<T> L){
+        this.target = target;
+        value = val;
+        lambda = L;
+    }
+
+    /* changes the value passed on the next run() */
+    public void setValue(boolean val){
+        value = val;
+    }
+
+    @Override
+    public void run(){
+        lambda.run(target, value);
+    }
+
+}
@@ -1,6 +1,7 @@
 package frc.helpers;
 
 import com.revrobotics.RelativeEncoder;
+import frc.diagnostics.MotorTelemetrySource;
 import frc.parent.MotorDef;
 //import com.revrobotics.*;
 import com.revrobotics.SparkMaxPIDController;
@@ -10,12 +11,13 @@ import com.revrobotics.CANSparkMax;
 
 //Documention: http://www.revrobotics.com/content/sw/max/sw-docs/java/com/revrobotics/CANSparkMax.html#%3Cinit%3E(int,com.revrobotics.CANSparkMaxLowLevel.MotorType)
 
-public class CCSparkMax extends CANSparkMax{
+public class CCSparkMax extends CANSparkMax implements MotorTelemetrySource{
 
     private String name;
     private String shortName;
     public  SparkMaxPIDController pidController;
     private RelativeEncoder encoder;
+    private int powerChannel = MotorDef.NO_POWER_CHANNEL;
 
     /**
      * CCSparkMax allows us to easily control Spark Max motor controllers
@@ -28,21 +30,52 @@ public class CCSparkMax extends CANSparkMax{
      */
     public CCSparkMax(String name, String shortName, int deviceID, MotorType controlMode, IdleMode idleMode,
      boolean reverse, boolean encoder){
+        this(name, shortName, deviceID, controlMode, encoder);
+        
+        super.setInverted(reverse);
+    }
+
+    private CCSparkMax(String name, String shortName, int deviceID, MotorType controlMode, boolean encoder){
         super(deviceID, controlMode);
         if(controlMode.equals(MotorType.kBrushless)) encoder = true;
         this.name = name;
         this.shortName = shortName;
-        
-        super.setInverted(reverse);
-        
 
         pidController = super.getPIDController();
         if(encoder) this.encoder = super.getEncoder();
     }
 
+    /**
+     * Creates the motor controller described by motorDef and applies its configuration,
+     * only writing the parameters the controller doesn't already have.
+     */
     public CCSparkMax(MotorDef motorDef) {
-        this(motorDef.getName(), motorDef.getShortName(), motorDef.getCANBusAddress(), motorDef.getType(), motorDef.getIdleMode(),
-            motorDef.isInverted(), true);
+        this(motorDef, true);
+    }
+
+    /* without configure the controller keeps its configuration until configure() is called, see MotorBringUp */
+    CCSparkMax(MotorDef motorDef, boolean configure) {
+        this(motorDef.getName(), motorDef.getShortName(), motorDef.getCANBusAddress(), motorDef.getType(), true);
+        this.powerChannel = motorDef.getPowerChannel();
+        if(configure) configure(motorDef);
+    }
+
+    /**
+     * Reads back the inversion and idle mode and writes the ones that differ from motorDef
+     * @param motorDef The configuration to apply
+     * @return the number of parameters written
+     */
+    public int configure(MotorDef motorDef){
+        int writes = 0;
+        if(super.getInverted() != motorDef.isInverted()){
+            super.setInverted(motorDef.isInverted());
+            writes++;
+        }
+        if(super.getIdleMode() != motorDef.getIdleMode()){
+            super.setIdleMode(motorDef.getIdleMode());
+            writes++;
+        }
+        return writes;
     }
     
 
@@ -54,6 +87,80 @@ public class CCSparkMax extends CANSparkMax{
         pidController.setReference(pos, ControlType.kPosition);
     }
 
+    /**
+     * Drives to a position with Smart Motion, a trapezoidal profile run on the controller
+     * @param pos The target position, in the units of the Position Conversion Factor
+     */
+    public void setReferenceSmartMotion(double pos){
+        pidController.setReference(pos, ControlType.kSmartMotion);
+    }
+
+    /**
+     * Limits the output of the onboard closed loop
+     * @param min The most negative output (-1.0 to 0)
+     * @param max The most positive output (0 to 1.0)
+     */
+    public void setOutputRange(double min, double max){
+        pidController.setOutputRange(min, max);
+    }
+
+    /**
+     * Sets the Smart Motion profile limits, in the units of the Velocity Conversion Factor
+     * @param maxVel The cruise velocity
+     * @param maxAccel The acceleration and deceleration
+     */
+    public void setSmartMotion(double maxVel, double maxAccel){
+        pidController.setSmartMotionMaxVelocity(maxVel, 0);
+        pidController.setSmartMotionMaxAccel(maxAccel, 0);
+    }
+
+    /**
+     * Reads back the onboard position loop parameters and writes the ones that differ,
+     * like configure() does for the MotorDef
+     * @param kp The proportional gain, the other gains are 0
+     * @param max The output is limited to -max to max
+     * @param maxVel The Smart Motion cruise velocity
+     * @param maxAccel The Smart Motion acceleration and deceleration
+     * @return the number of parameters written
+     */
+    public int configurePosition(double kp, double max, double maxVel, double maxAccel){
+        int writes = 0;
+        if(differs(pidController.getP(), kp)){
+            pidController.setP(kp);
+            writes++;
+        }
+        if(differs(pidController.getI(), 0)){
+            pidController.setI(0);
+            writes++;
+        }
+        if(differs(pidController.getD(), 0)){
+            pidController.setD(0);
+            writes++;
+        }
+        if(differs(pidController.getFF(), 0)){
+            pidController.setFF(0);
+            writes++;
+        }
+        if(differs(pidController.getOutputMin(), -max) || differs(pidController.getOutputMax(), max)){
+            pidController.setOutputRange(-max, max);
+            writes++;
+        }
+        if(differs(pidController.getSmartMotionMaxVelocity(0), maxVel)){
+            pidController.setSmartMotionMaxVelocity(maxVel, 0);
+            writes++;
+        }
+        if(differs(pidController.getSmartMotionMaxAccel(0), maxAccel)){
+            pidController.setSmartMotionMaxAccel(maxAccel, 0);
+            writes++;
+        }
+        return writes;
+    }
+
+    //The controller keeps its parameters as floats
+    private static boolean differs(double current, double wanted){
+        return (float) current != (float) wanted;
+    }
+
     /**
      * Sets the speed of the motor controller
      * @param speed The speed that will be set (-1.0 to 1.0)
@@ -90,6 +197,14 @@ public class CCSparkMax extends CANSparkMax{
         return encoder.getPosition();
     }
 
+    /**
+     * Returns the velocity of the encoder.
+     * By default the velocity is in RPM, but will be scaled if the Velocity Conversion Factor has been set.
+     */
+    public double getVelocity(){
+        return encoder.getVelocity();
+    }
+
     /**
      * Sets the PID values, must be positive
      * @param Kp The proportional gain value
@@ -110,4 +225,12 @@ public class CCSparkMax extends CANSparkMax{
     public String getShortName() {
         return shortName;
     }
+
+    /**
+     * Returns the power distribution channel that feeds this motor controller,
+     * MotorDef.NO_POWER_CHANNEL if it isn't known.
+     */
+    public int getPowerChannel() {
+        return powerChannel;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package frc.helpers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * DeferredExecutor runs long actions on a single worker thread, off the robot loop, and hands
+ * their results back to the loop: runCompleted(), called at the start of each cycle, runs the
+ * completion of every action that finished since.  At most capacity actions are queued or
+ * running; submit() refuses more instead of blocking.  The jobs are allocated up front and
+ * reused, so submitting a Runnable that already exists doesn't allocate.
+ */
+public class DeferredExecutor {
+
+    private static final class Job {
+        private Runnable work;
+        private Supplier<?> supplier;
+        private Consumer<Object> consumer;
+        private Runnable done;
+        private Object result;
+        private Throwable error;
+
+        private void clear() {
+            work = null;
+            supplier = null;
+            consumer = null;
+            done = null;
+            result = null;
+            error = null;
+        }
+    }
+
+    private final ArrayBlockingQueue<Job> free;
+    private final ArrayBlockingQueue<Job> pending;
+    private final ArrayBlockingQueue<Job> completed;
+    private final Thread thread;
+
+    private long rejectedCount;
+
+    /**
+     * @param name the worker thread's name
+     * @param capacity the number of actions that can be queued or running at once
+     */
+    public DeferredExecutor(String name, int capacity) {
+        free = new ArrayBlockingQueue<>(capacity);
+        pending = new ArrayBlockingQueue<>(capacity);
+        completed = new ArrayBlockingQueue<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            free.add(new Job());
+        }
+
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Runs work on the worker, then done in the robot loop.  Call from the robot loop.
+     * @param done run by runCompleted() after work finished, may be null
+     * @return false if the executor is full, nothing runs
+     */
+    public boolean submit(Runnable work, Runnable done) {
+        Job job = take();
+        if (job == null) {
+            return false;
+        }
+        job.work = work;
+        job.done = done;
+        pending.add(job);
+        return true;
+    }
+
+    /**
+     * Computes a value on the worker and passes it to done in the robot loop.  Call from the robot loop.
+     * @return false if the executor is full, nothing runs
+     */
+    @SuppressWarnings("unchecked")
+    public <V> boolean submit(Supplier<V> work, Consumer<? super V> done) {
+        Job job = take();
+        if (job == null) {
+            return false;
+        }
+        job.supplier = work;
+        job.consumer = (Consumer<Object>) done;
+        pending.add(job);
+        return true;
+    }
+
+    private Job take() {
+        Job job = free.poll();
+        if (job == null) {
+            rejectedCount++;
+        }
+        return job;
+    }
+
+    /* a Timer trigger that submits work and done when the timer fires, create it once and reuse it */
+    public Runnable defer(Runnable work, Runnable done) {
+        return () -> {
+            if (!submit(work, done)) {
+                System.err.println("Deferred executor: " + thread.getName() + " is full, action dropped");
+            }
+        };
+    }
+
+    /* runs the completion of every action that finished since the last call, call at the start of each robot loop */
+    public void runCompleted() {
+        Job job;
+        while ((job = completed.poll()) != null) {
+            try {
+                if (job.error != null) {
+                    System.err.println("Deferred executor: " + thread.getName() + " action failed: " + job.error);
+                } else if (job.consumer != null) {
+                    job.consumer.accept(job.result);
+                } else if (job.done != null) {
+                    job.done.run();
+                }
+            } finally {
+                job.clear();
+                free.add(job);
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Job job;
+            try {
+                job = pending.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (job.supplier != null) {
+                    job.result = job.supplier.get();
+                } else {
+                    job.work.run();
+                }
+            } catch (Throwable e) {
+                // an Error too, it must not take the only worker down with it
+                job.error = e;
+            }
+            // the job came from free, so there is always room
+            completed.add(job);
+        }
+    }
+
+    /* the number of actions waiting for or running on the worker, or waiting for runCompleted() */
+    public int getBusyCount() {
+        return free.remainingCapacity();
+    }
+
+    /* the number of submit() calls refused because the executor was full */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void stop() {
+        thread.interrupt();
+    }
+}
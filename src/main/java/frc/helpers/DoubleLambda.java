@@ -0,0 +1,6 @@
+package frc.helpers;
+
+/* a Lambda taking a double without boxing it */
+public interface DoubleLambda<T> {
+    void run(T target, double value);
+}
@@ -0,0 +1,25 @@
+package frc.helpers;
+
+/* a LambdaRunner holding a double without boxing it, can be passed to Timer as a trigger */
+public class DoubleLambdaRunner<T> implements Runnable {
+    private DoubleLambda<T> lambda;
+    private T target;
+    private double value;
+
+    public DoubleLambdaRunner(T target, double val, DoubleLambda<T> L){
+        this.target = target;
+        value = val;
+        lambda = L;
+    }
+
+    /* changes the value passed on the next run() */
+    public void setValue(double val){
+        value = val;
+    }
+
+    @Override
+    public void run(){
+        lambda.run(target, value);
+    }
+
+}
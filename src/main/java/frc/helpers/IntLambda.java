@@ -0,0 +1,6 @@
+package frc.helpers;
+
+/* a Lambda taking a int without boxing it */
+public interface IntLambda<T> {
+    void run(T target, int value);
+}
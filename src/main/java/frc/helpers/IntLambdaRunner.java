@@ -0,0 +1,25 @@
+package frc.helpers;
+
+/* a LambdaRunner holding a int without boxing it, can be passed to Timer as a trigger */
+public class IntLambdaRunner<T> implements Runnable {
+    private IntLambda<T> lambda;
+    private T target;
+    private int value;
+
+    public IntLambdaRunner(T target, int val, IntLambda<T> L){
+        this.target = target;
+        value = val;
+        lambda = L;
+    }
+
+    /* changes the value passed on the next run() */
+    public void setValue(int val){
+        value = val;
+    }
+
+    @Override
+    public void run(){
+        lambda.run(target, value);
+    }
+
+}
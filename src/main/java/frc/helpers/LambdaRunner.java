@@ -1,6 +1,6 @@
 package frc.helpers;
 
-public class LambdaRunner<T, V> {
+public class LambdaRunner<T, V> implements Runnable {
     private Lambda<T, V> lambda;
     private T target;
     private V value;
@@ -11,6 +11,7 @@ public class LambdaRunner<T, V> {
         lambda = L;
     }
 
+    @Override
     public void run(){
         lambda.run(target, value);
     }
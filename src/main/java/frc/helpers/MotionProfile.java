@@ -0,0 +1,124 @@
+package frc.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A time parameterized motion profile, precomputed offline (see frc.tools.ProfileGenerator) and
+ * memory mapped from the deploy directory.  Following it is array indexing: sample i is the
+ * position, velocity and acceleration i * dt seconds into the move.  Only uses the JDK, so the
+ * generator can write the same format.
+ * <pre>
+ * int   MAGIC
+ * int   VERSION
+ * float dt, in seconds
+ * int   number of samples
+ * float position, velocity, acceleration per sample
+ * </pre>
+ * Little endian, like the roboRIO.
+ */
+public final class MotionProfile {
+
+    public static final int MAGIC = 0x4d505246; // "MPRF"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".prof";
+    private static final int HEADER_FLOATS = 4;
+    private static final int FLOATS_PER_SAMPLE = 3;
+
+    private final String name;
+    private final float dt;
+    private final int size;
+    private final FloatBuffer samples;
+
+    private MotionProfile(String name, ByteBuffer buffer) {
+        this.name = name;
+        if (buffer.limit() < HEADER_FLOATS * Float.BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException(name + " is not a version " + VERSION + " motion profile");
+        }
+        this.dt = buffer.getFloat(8);
+        this.size = buffer.getInt(12);
+        if (size <= 0 || buffer.limit() < (HEADER_FLOATS + size * FLOATS_PER_SAMPLE) * Float.BYTES) {
+            throw new IllegalArgumentException(name + " is truncated");
+        }
+        this.samples = buffer.asFloatBuffer();
+    }
+
+    /* maps a profile file, the name is the file name without EXTENSION */
+    public static MotionProfile load(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // preloaded now, so the first autonomous read doesn't page fault
+            mapped.load();
+            String name = file.getName();
+            if (name.endsWith(EXTENSION)) {
+                name = name.substring(0, name.length() - EXTENSION.length());
+            }
+            return new MotionProfile(name, mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /* writes a profile, position, velocity and acceleration have one value per sample */
+    public static void write(File file, float dt, float[] position, float[] velocity, float[] acceleration) throws IOException {
+        int size = position.length;
+        ByteBuffer buffer = ByteBuffer.allocate((HEADER_FLOATS + size * FLOATS_PER_SAMPLE) * Float.BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putFloat(dt).putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putFloat(position[i]).putFloat(velocity[i]).putFloat(acceleration[i]);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            channel.truncate(0);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /* the time between two samples in seconds */
+    public double getDt() {
+        return dt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /* how long the profile takes in seconds */
+    public double getDuration() {
+        return (size - 1) * dt;
+    }
+
+    /* the sample seconds into the profile, the last one after it ended */
+    public int indexAt(double seconds) {
+        int index = (int) (seconds / dt);
+        return Math.max(0, Math.min(size - 1, index));
+    }
+
+    public double getPosition(int index) {
+        return samples.get(HEADER_FLOATS + index * FLOATS_PER_SAMPLE);
+    }
+
+    public double getVelocity(int index) {
+        return samples.get(HEADER_FLOATS + index * FLOATS_PER_SAMPLE + 1);
+    }
+
+    public double getAcceleration(int index) {
+        return samples.get(HEADER_FLOATS + index * FLOATS_PER_SAMPLE + 2);
+    }
+
+    /* where the profile ends */
+    public double getGoal() {
+        return getPosition(size - 1);
+    }
+}
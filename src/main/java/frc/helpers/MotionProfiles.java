@@ -0,0 +1,50 @@
+package frc.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The motion profiles mapped at startup, looked up by name.  Drive and turn profiles are named
+ * by driveName() and turnName(), which frc.tools.ProfileGenerator uses too.
+ */
+public final class MotionProfiles {
+
+    private static final Map<String, MotionProfile> profiles = new HashMap<>();
+
+    private MotionProfiles() {}
+
+    /* maps every profile in dir, call once at startup */
+    public static synchronized void loadAll(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(MotionProfile.EXTENSION));
+        if (files == null) {
+            System.err.println("Motion profiles: " + dir + " not found");
+            return;
+        }
+        for (File file : files) {
+            try {
+                MotionProfile profile = MotionProfile.load(file);
+                profiles.put(profile.getName(), profile);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Motion profiles: " + file.getName() + " skipped: " + e.getMessage());
+            }
+        }
+        System.out.printf("Motion profiles: %d loaded from %s%n", profiles.size(), dir);
+    }
+
+    /* null if there is no profile with that name */
+    public static synchronized MotionProfile get(String name) {
+        return profiles.get(name);
+    }
+
+    /* the name of the profile driving distance, in hundredths of the drive units */
+    public static String driveName(double distance) {
+        return "drive_" + Math.round(distance * 100);
+    }
+
+    /* the name of the profile turning angle degrees */
+    public static String turnName(double angle) {
+        return "turn_" + Math.round(angle);
+    }
+}
@@ -0,0 +1,143 @@
+package frc.helpers;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import frc.parent.MotorDef;
+
+/**
+ * MotorBringUp creates a CCSparkMax for every MotorDef at startup.  Each controller is on its own
+ * CAN address, so they are brought up concurrently: each one is created, its configuration is
+ * read back, and only the parameters that differ from its MotorDef are written.  The time each
+ * device took, and the total, are printed to the console.  The subsystems get their controllers
+ * with get(), the first call brings up all of them.
+ */
+public final class MotorBringUp {
+
+    private static final Map<MotorDef, CCSparkMax> motors = new EnumMap<>(MotorDef.class);
+    /* indexed by MotorDef ordinal, each written by the thread bringing up that controller */
+    private static final long[] bringUpNanos = new long[MotorDef.values().length];
+    private static final int[] configWrites = new int[MotorDef.values().length];
+    /* the controllers created so far, kept so a failed configuration is retried on the same device */
+    private static final CCSparkMax[] created = new CCSparkMax[MotorDef.values().length];
+    private static long totalNanos;
+    private static boolean done;
+
+    private MotorBringUp() {}
+
+    /**
+     * The controller for motorDef, brings up every controller on the first call.
+     * @throws IllegalStateException if the controller couldn't be brought up
+     */
+    public static synchronized CCSparkMax get(MotorDef motorDef) {
+        bringUp();
+        CCSparkMax motor = motors.get(motorDef);
+        if (motor == null) {
+            throw new IllegalStateException(motorDef.getName() + " (CAN " + motorDef.getCANBusAddress() + ") was not brought up");
+        }
+        return motor;
+    }
+
+    /**
+     * Brings up every MotorDef controller, does nothing after the first call.
+     * @throws IllegalStateException naming the MotorDef whose controller couldn't be created, or
+     *         the first one left when the bring-up was interrupted
+     */
+    public static synchronized void bringUp() {
+        if (done) {
+            return;
+        }
+        done = true;
+
+        long start = System.nanoTime();
+        MotorDef[] defs = MotorDef.values();
+        ExecutorService pool = Executors.newFixedThreadPool(defs.length, r -> {
+            Thread t = new Thread(r, "Motor Bring-up");
+            t.setDaemon(true);
+            return t;
+        });
+
+        List<Future<CCSparkMax>> futures = new ArrayList<>();
+        for (MotorDef def : defs) {
+            futures.add(pool.submit(() -> bringUp(def)));
+        }
+
+        try {
+            for (int i = 0; i < defs.length; i++) {
+                try {
+                    motors.put(defs[i], futures.get(i).get());
+                } catch (ExecutionException e) {
+                    retry(defs[i], e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Motor bring-up interrupted before " + defs[i].getName() + " was brought up", e);
+                }
+            }
+        } finally {
+            pool.shutdown();
+            totalNanos = System.nanoTime() - start;
+        }
+
+        report();
+    }
+
+    private static CCSparkMax bringUp(MotorDef def) {
+        long start = System.nanoTime();
+        CCSparkMax motor = new CCSparkMax(def, false);
+        // published to bringUp() by Future.get(), also when configure() throws
+        created[def.ordinal()] = motor;
+        int writes = motor.configure(def);
+        // published to bringUp() by Future.get()
+        bringUpNanos[def.ordinal()] = System.nanoTime() - start;
+        configWrites[def.ordinal()] = writes;
+        return motor;
+    }
+
+    /**
+     * Configures the controller again after its bring-up threw.  The controller is never created
+     * twice, its CAN address would already be taken, so if the constructor itself failed this throws.
+     */
+    private static void retry(MotorDef def, Throwable cause) {
+        CCSparkMax motor = created[def.ordinal()];
+        if (motor == null) {
+            throw new IllegalStateException("Motor bring-up: " + def.getName() + " (CAN " + def.getCANBusAddress() + ") could not be created", cause);
+        }
+
+        System.err.println("Motor bring-up: " + def.getName() + " configuration failed, retrying: " + cause);
+        try {
+            configWrites[def.ordinal()] = motor.configure(def);
+        } catch (RuntimeException e) {
+            System.err.println("Motor bring-up: " + def.getName() + " left unconfigured: " + e);
+        }
+        motors.put(def, motor);
+    }
+
+    private static void report() {
+        for (MotorDef def : MotorDef.values()) {
+            System.out.printf("Motor bring-up: %-20s CAN %2d  %7.1f ms  %d parameter(s) written%n",
+                def.getName(), def.getCANBusAddress(), getBringUpNanos(def) / 1e6, getConfigWrites(def));
+        }
+        System.out.printf("Motor bring-up: %d controllers in %.1f ms%n", motors.size(), totalNanos / 1e6);
+    }
+
+    /* how long creating and configuring the controller took */
+    public static synchronized long getBringUpNanos(MotorDef motorDef) {
+        return bringUpNanos[motorDef.ordinal()];
+    }
+
+    /* how many configuration parameters had to be written to the controller */
+    public static synchronized int getConfigWrites(MotorDef motorDef) {
+        return configWrites[motorDef.ordinal()];
+    }
+
+    /* the time to bring up every controller */
+    public static synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+}
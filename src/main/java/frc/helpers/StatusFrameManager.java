@@ -0,0 +1,227 @@
+package frc.helpers;
+
+import static com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame.*;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.revrobotics.CANSparkMax.FaultID;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+
+import frc.diagnostics.MotorDataType;
+import frc.diagnostics.MotorUpdate;
+
+/**
+ * StatusFrameManager sets how often each SparkMax sends its periodic status frames, based on what
+ * is actually read from it.  The control code registers what it needs with require(), the
+ * diagnostics with requireTelemetry() or requireData(); apply() then sends each frame at the
+ * fastest rate anyone asked for, slows the frames nobody reads down to UNUSED_PERIOD_MS, and
+ * prints the estimated CAN bus load saved compared to the REVLib defaults.  Frame periods aren't
+ * kept across a controller reboot, so apply() only writes the periods that differ from the defaults,
+ * and checkResets() writes them again to a controller that rebooted since.
+ * setThrottle() slows the frames only the diagnostics read, never the ones the control code needs.
+ * <ul>
+ *   <li>kStatus0: applied output, faults, sticky faults</li>
+ *   <li>kStatus1: velocity, temperature, bus voltage, output current</li>
+ *   <li>kStatus2: position</li>
+ *   <li>kStatus3: analog sensor</li>
+ * </ul>
+ */
+public class StatusFrameManager {
+
+    private static final PeriodicFrame[] FRAMES = { kStatus0, kStatus1, kStatus2, kStatus3 };
+    /* the period of each frame after a controller boots, in ms */
+    private static final int[] DEFAULT_PERIOD_MS = { 10, 20, 20, 50 };
+    /* the period of a frame nobody reads, still often enough to see the controller is alive */
+    public static final int UNUSED_PERIOD_MS = 500;
+    private static final int MIN_PERIOD_MS = 5;
+
+    /* an extended CAN frame with 8 data bytes, including stuff bits, on a 1 Mbit/s bus */
+    private static final double BITS_PER_FRAME = 135;
+    private static final double BUS_BITS_PER_SECOND = 1_000_000;
+
+    /* the fastest period asked for by the control code and by the diagnostics, per frame, 0 if nobody reads it */
+    private final Map<CCSparkMax, int[]> required = new LinkedHashMap<>();
+    private final Map<CCSparkMax, int[]> telemetry = new LinkedHashMap<>();
+    /* the period each frame was last set to */
+    private final Map<CCSparkMax, int[]> applied = new LinkedHashMap<>();
+    /* the controllers whose kHasReset was already set when apply() wrote their periods */
+    private final Set<CCSparkMax> appliedAfterReset = new HashSet<>();
+
+    private int throttle = 1;
+    private double savedFramesPerSecond;
+
+    /* asks for frame to be sent at least every periodMs by motor, for the control code */
+    public void require(CCSparkMax motor, PeriodicFrame frame, int periodMs) {
+        require(required, motor, frame, periodMs);
+    }
+
+    /* asks for frame to be sent at least every periodMs by motor, for diagnostics that can be throttled */
+    public void requireTelemetry(CCSparkMax motor, PeriodicFrame frame, int periodMs) {
+        require(telemetry, motor, frame, periodMs);
+    }
+
+    private void require(Map<CCSparkMax, int[]> map, CCSparkMax motor, PeriodicFrame frame, int periodMs) {
+        register(motor);
+        int[] periods = map.get(motor);
+        int period = Math.max(MIN_PERIOD_MS, periodMs);
+        int index = indexOf(frame);
+        if (periods[index] == 0 || period < periods[index]) {
+            periods[index] = period;
+        }
+    }
+
+    private static int indexOf(PeriodicFrame frame) {
+        for (int f = 0; f < FRAMES.length; f++) {
+            if (FRAMES[f] == frame) {
+                return f;
+            }
+        }
+        throw new IllegalArgumentException("Unmanaged status frame " + frame);
+    }
+
+    /* registers a motor that is only read through the frames given by require() */
+    public void register(CCSparkMax motor) {
+        if (!required.containsKey(motor)) {
+            required.put(motor, new int[FRAMES.length]);
+            telemetry.put(motor, new int[FRAMES.length]);
+            applied.put(motor, DEFAULT_PERIOD_MS.clone());
+        }
+    }
+
+    /* asks for the frames carrying the MotorDataTypes currently sampled by update, at the rate they are sampled */
+    public void requireData(MotorUpdate update) {
+        for (int i = 0; i < update.getNumMotors(); i++) {
+            if (!(update.getMotor(i) instanceof CCSparkMax)) {
+                continue;
+            }
+            CCSparkMax motor = (CCSparkMax) update.getMotor(i);
+            register(motor);
+            for (MotorDataType type : update.getSampledData()) {
+                PeriodicFrame frame = getFrame(type);
+                int periodMs = update.getSamplePeriod(type);
+                if (frame != null && periodMs > 0) {
+                    requireTelemetry(motor, frame, periodMs);
+                }
+            }
+        }
+    }
+
+    /* the frame carrying a MotorDataType, null if it isn't sent periodically */
+    public static PeriodicFrame getFrame(MotorDataType type) {
+        switch (type) {
+            case FAULTS:
+            case STICKY_FAULTS:
+                return kStatus0;
+            case TEMP:
+            case VELOCITY:
+                return kStatus1;
+            case POSITION:
+                return kStatus2;
+            default:
+                // read on request (INVERTED_STATE), or not from the controller (PDP_CURRENT)
+                return null;
+        }
+    }
+
+    /* sets the frame periods of every registered motor and reports the estimated savings */
+    public void apply() {
+        for (CCSparkMax motor : applied.keySet()) {
+            if (motor.getStickyFault(FaultID.kHasReset)) {
+                appliedAfterReset.add(motor);
+            }
+        }
+        int writes = update();
+        System.out.printf("Status frames: %d periods changed, %.0f -> %.0f frames/s, about %.1f%% of the CAN bus saved%n",
+            writes, getDefaultFramesPerSecond(), getDefaultFramesPerSecond() - savedFramesPerSecond, getSavedBusLoad() * 100);
+    }
+
+    /**
+     * Multiplies the period of every frame only the diagnostics read by factor, up to
+     * UNUSED_PERIOD_MS, and writes the periods that changed.  1 restores the requested rates.
+     */
+    public void setThrottle(int factor) {
+        throttle = Math.max(1, factor);
+        int writes = update();
+        System.out.printf("Status frames: throttled %dx, %d periods changed, %.0f frames/s%n",
+            throttle, writes, getDefaultFramesPerSecond() - savedFramesPerSecond);
+    }
+
+    /**
+     * Sets the frame periods again on every controller with the sticky kHasReset fault, a reboot
+     * puts it back on the default periods, then clears its sticky faults so the next reboot is seen
+     * too.  Call from the robot loop, after anything that records the sticky faults.
+     * @return the number of controllers that rebooted
+     */
+    public int checkResets() {
+        int resets = 0;
+        for (Map.Entry<CCSparkMax, int[]> entry : applied.entrySet()) {
+            CCSparkMax motor = entry.getKey();
+            if (motor.getStickyFault(FaultID.kHasReset)) {
+                // the reboot at power on was already handled by apply()
+                if (!appliedAfterReset.remove(motor)) {
+                    System.arraycopy(DEFAULT_PERIOD_MS, 0, entry.getValue(), 0, FRAMES.length);
+                    resets++;
+                }
+                motor.clearFaults();
+            }
+        }
+        if (resets > 0) {
+            int writes = update();
+            System.out.printf("Status frames: %d controller(s) rebooted, %d periods set again%n", resets, writes);
+        }
+        return resets;
+    }
+
+    /* writes the periods that differ from the ones last set, returns the number written */
+    private int update() {
+        double framesPerSecond = 0;
+        int writes = 0;
+
+        for (Map.Entry<CCSparkMax, int[]> entry : required.entrySet()) {
+            CCSparkMax motor = entry.getKey();
+            int[] control = entry.getValue();
+            int[] diagnostics = telemetry.get(motor);
+            int[] current = applied.get(motor);
+            for (int f = 0; f < FRAMES.length; f++) {
+                int period = UNUSED_PERIOD_MS;
+                if (diagnostics[f] != 0) {
+                    // throttled no slower than a frame nobody reads, unless it was asked for slower
+                    period = Math.min(diagnostics[f] * throttle, Math.max(diagnostics[f], UNUSED_PERIOD_MS));
+                }
+                if (control[f] != 0) {
+                    period = Math.min(period, control[f]);
+                }
+                if (period != current[f]) {
+                    motor.setPeriodicFramePeriod(FRAMES[f], period);
+                    current[f] = period;
+                    writes++;
+                }
+                framesPerSecond += 1000.0 / period;
+            }
+        }
+
+        savedFramesPerSecond = getDefaultFramesPerSecond() - framesPerSecond;
+        return writes;
+    }
+
+    private double getDefaultFramesPerSecond() {
+        double framesPerSecond = 0;
+        for (int period : DEFAULT_PERIOD_MS) {
+            framesPerSecond += 1000.0 / period;
+        }
+        return framesPerSecond * required.size();
+    }
+
+    /* the status frames per second saved by apply() and setThrottle(), negative if more are sent than by default */
+    public double getSavedFramesPerSecond() {
+        return savedFramesPerSecond;
+    }
+
+    /* the estimated fraction of the CAN bus bandwidth saved by apply() and setThrottle() */
+    public double getSavedBusLoad() {
+        return savedFramesPerSecond * BITS_PER_FRAME / BUS_BITS_PER_SECOND;
+    }
+}
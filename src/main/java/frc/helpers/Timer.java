@@ -1,131 +1,146 @@
 package frc.helpers;
 
-import java.util.ArrayList;
-@SuppressWarnings("rawtypes")
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * A timer measured on the FPGA clock, so a loop that overruns doesn't make it drift.  A running
+ * timer's deadline sits in a TimingWheel; tick() fires the ones that are due.  Only running timers
+ * are referenced by the wheel, a stopped or cancelled timer can be garbage collected.  Triggers
+ * are any Runnable: a LambdaRunner, one of its primitive variants, or DeferredExecutor.defer().
+ */
 public class Timer {
     public final static double deltaTime = 0.02; //seconds per tick
 
-    private static ArrayList<Timer> timers = new ArrayList<Timer>();
+    /* deadlines are rounded up to this many microseconds */
+    private final static long WHEEL_RESOLUTION = 1000;
+    private static TimingWheel wheel;
 
-    private double ticksPassed;
-    private double ticksTotal;
+    private long totalMicros;
+    private long elapsedMicros; //up to the last start()
+    private long startMicros;
     private boolean triggered;
     private boolean started;
-    private LambdaRunner[] triggers;
+    private Runnable[] triggers;
+    private final TimingWheel.Task deadline = new TimingWheel.Task(this::fire);
 
-    /** 
+    /**
      * A timer that will run in periodic methods. The trigger will be true after the specified time has passed.
      *@param time how much time will pass before the timer is triggered
     */
     public Timer(double time){
-        triggers = null;
-        ticksTotal = secondsToTicks(time);
-        ticksPassed = 0;
-        triggered = false;
-        timers.add(this);
+        this(time, 0);
     }
 
-    /** 
+    /**
      * A timer that will run in periodic methods. The trigger will be true after the specified time has passed.
      *@param time how much time will pass before the timer is triggered
     */
-    public Timer(double time, LambdaRunner... ms){
+    public Timer(double time, Runnable... ms){
+        this(time, 0);
         triggers = ms;
-        ticksTotal = secondsToTicks(time);
-        ticksPassed = 0;
-        triggered = false;
-        timers.add(this);
     }
 
-    /** 
+    /**
      * A timer that will run in periodic methods. The trigger will be true after the specified time has passed.
      *@param time how much time will pass before the timer is triggered
      *@param start what time you're starting the timer at
     */
     public Timer(double time, double start){
         triggers = null;
-        ticksTotal = secondsToTicks(time);
-        ticksPassed = secondsToTicks(start);
+        totalMicros = secondsToMicros(time);
+        elapsedMicros = secondsToMicros(start);
         triggered = false;
-        timers.add(this);
     }
 
-    /** 
-     * Increments every timer. Must be included in the periodic function for timers to work.
+    private static TimingWheel wheel(){
+        if(wheel == null) wheel = new TimingWheel(WHEEL_RESOLUTION, RobotController.getFPGATime());
+        return wheel;
+    }
+
+    /**
+     * Triggers every timer whose time has passed. Must be included in the periodic function for timers to work.
     */
     public static void tick(){
-        for(Timer t : timers){
-            if(!t.started) continue;
-            t.ticksPassed++;
-            if(t.ticksPassed >= t.ticksTotal){
-                if(t.triggers == null) continue;
-                for(LambdaRunner tr : t.triggers){
-                    if(!t.triggered()) tr.run();
-                }
-                t.triggered = true;
-            }
+        wheel().advance(RobotController.getFPGATime());
+    }
+
+    private void fire(){
+        // set first, so a trigger can restart its own timer
+        triggered = true;
+        if(triggers == null) return;
+        for(Runnable tr : triggers){
+            tr.run();
         }
     }
 
-    /** 
+    /* puts the deadline of a running timer in the wheel, or takes it out */
+    private void schedule(){
+        if(started && !triggered){
+            wheel().schedule(deadline, startMicros + totalMicros - elapsedMicros);
+        }else{
+            wheel().cancel(deadline);
+        }
+    }
+
+    /**
      * Resets a timer's time to 0 without changing the target time.
     */
     public void reset(){
-        ticksPassed = 0;
-        triggered = false;
+        reset(0);
     }
 
-    /** 
+    /**
      * Resets a timer's time to a specified time without changing the target time.
      * @param start the time that the timer will restart to
     */
     public void reset(double start){
-        ticksPassed = secondsToTicks(start);
+        elapsedMicros = secondsToMicros(start);
+        startMicros = RobotController.getFPGATime();
         triggered = false;
+        schedule();
     }
 
-    /** 
+    /**
      * Restarts a timer to 0 and sets the time to a specified value.
      * @param time how long it will take for the timer to trigger
     */
     public void set(double time){
-        ticksPassed = 0;
-        ticksTotal = secondsToTicks(time);
+        elapsedMicros = 0;
+        totalMicros = secondsToMicros(time);
         triggered = false;
         started = false;
+        schedule();
     }
 
-    public void set(double time, LambdaRunner... ls){
-        ticksPassed = 0;
-        ticksTotal = secondsToTicks(time);
-        triggered = false;
-        started = false;
+    public void set(double time, Runnable... ls){
+        set(time);
         triggers = ls;
     }
 
-    /** 
+    /**
      * Restarts a timer to a specified value and sets the time to a specified value.
      * @param time how long it will take for the timer to trigger
      * @param start the time that the timer will restart to
     */
     public void set(double time, double start){
-        ticksPassed = secondsToTicks(start);
-        ticksTotal = secondsToTicks(time);
-        triggered = false;
+        totalMicros = secondsToMicros(time);
+        reset(start);
     }
 
-    /** 
+    /**
      * @return if the timer has run past it's specified time
     */
     public boolean triggered(){
         return triggered;
     }
 
-    /** 
+    /**
      * @return how long in seconds the timer has been running for
     */
     public double elapsed(){
-        return ticksToSeconds(ticksPassed);
+        long micros = elapsedMicros;
+        if(started) micros += RobotController.getFPGATime() - startMicros;
+        return micros / 1e6;
     }
 
     public static double ticksToSeconds(double ticks){
@@ -136,16 +151,43 @@ public class Timer {
         return seconds / deltaTime;
     }
 
+    private static long secondsToMicros(double seconds){
+        return Math.round(seconds * 1e6);
+    }
+
     public void start(){
+        if(started) return;
         started = true;
+        startMicros = RobotController.getFPGATime();
+        schedule();
     }
-    
+
     public void stop(){
+        if(!started) return;
+        elapsedMicros += RobotController.getFPGATime() - startMicros;
         started = false;
+        schedule();
+    }
+
+    /**
+     * Stops the timer and resets it to 0 without running its triggers. The timer can be started again.
+    */
+    public void cancel(){
+        started = false;
+        elapsedMicros = 0;
+        triggered = false;
+        schedule();
     }
 
     public boolean started(){
         return started;
     }
-    
-}
\ No newline at end of file
+
+    /**
+     * @return how many timers are running and haven't triggered yet
+    */
+    public static int pending(){
+        return wheel().size();
+    }
+
+}
@@ -0,0 +1,166 @@
+package frc.helpers;
+
+/**
+ * TimingWheel is a hierarchical timing wheel: LEVELS wheels of SLOTS slots each, every slot an
+ * intrusive doubly linked list of Tasks.  schedule() and cancel() are O(1) and don't allocate;
+ * advance() walks one slot per tick of the clock that passed, and moves the tasks of a higher
+ * level down a level each time the lower one wraps around.  A task never fires before its
+ * deadline, and fires on the first advance() at or after it.  Times are in microseconds, on
+ * whatever clock the caller passes in; Timer uses the FPGA clock.  Not thread safe.
+ */
+public final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    /* the furthest a deadline can be placed, later ones are parked in the top level and placed again */
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /**
+     * Something that runs at a deadline.  A task is in at most one wheel at a time and can be
+     * scheduled again, from its own action too.
+     */
+    public static final class Task {
+        private final Runnable action;
+        private long deadlineTick;
+        private Task prev;
+        private Task next;
+        private int level = -1;
+        private int slot;
+
+        /* action runs in advance(), once per schedule() */
+        public Task(Runnable action) {
+            this.action = action;
+        }
+
+        public boolean isScheduled() {
+            return level >= 0;
+        }
+    }
+
+    private final long resolution;
+    private final Task[][] slots = new Task[LEVELS][SLOTS];
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param resolution the length of a tick in microseconds, deadlines are rounded up to a whole tick
+     * @param now the current time in microseconds
+     */
+    public TimingWheel(long resolution, long now) {
+        this.resolution = resolution;
+        this.currentTick = now / resolution;
+    }
+
+    /* runs task at the first advance() at or after deadline, moves it if it was already scheduled */
+    public void schedule(Task task, long deadline) {
+        cancel(task);
+        // round up, so a task never fires early
+        task.deadlineTick = Math.max(currentTick + 1, (deadline + resolution - 1) / resolution);
+        place(task);
+        size++;
+    }
+
+    /* removes task from the wheel, returns false if it wasn't scheduled */
+    public boolean cancel(Task task) {
+        if (!task.isScheduled()) {
+            return false;
+        }
+        unlink(task);
+        size--;
+        return true;
+    }
+
+    /* runs every task whose deadline is at or before now, returns how many ran */
+    public int advance(long now) {
+        long nowTick = now / resolution;
+        if (size == 0) {
+            currentTick = Math.max(currentTick, nowTick);
+            return 0;
+        }
+
+        int fired = 0;
+        while (currentTick < nowTick) {
+            long tick = ++currentTick;
+
+            // the higher levels move down first, so the tasks land in the right lower slot
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+
+            // one at a time from the head, an action can cancel or reschedule the other tasks in the slot
+            int slot = (int) (tick & SLOT_MASK);
+            Task task;
+            while ((task = slots[0][slot]) != null) {
+                unlink(task);
+                if (task.deadlineTick > tick) {
+                    place(task);
+                } else {
+                    size--;
+                    fired++;
+                    task.action.run();
+                }
+            }
+
+            if (size == 0) {
+                currentTick = nowTick;
+            }
+        }
+        return fired;
+    }
+
+    private void cascade(int level, int slot) {
+        Task task = slots[level][slot];
+        slots[level][slot] = null;
+        while (task != null) {
+            Task next = task.next;
+            task.prev = null;
+            task.next = null;
+            place(task);
+            task = next;
+        }
+    }
+
+    /* links task into the slot for its deadline, relative to currentTick */
+    private void place(Task task) {
+        long delta = Math.min(task.deadlineTick - currentTick, MAX_DELTA);
+        long tick = currentTick + delta;
+        int level = 0;
+        while (delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        Task head = slots[level][slot];
+        task.next = head;
+        task.prev = null;
+        if (head != null) {
+            head.prev = task;
+        }
+        slots[level][slot] = task;
+        task.level = level;
+        task.slot = slot;
+    }
+
+    private void unlink(Task task) {
+        if (task.prev != null) {
+            task.prev.next = task.next;
+        } else {
+            slots[task.level][task.slot] = task.next;
+        }
+        if (task.next != null) {
+            task.next.prev = task.prev;
+        }
+        task.prev = null;
+        task.next = null;
+        task.level = -1;
+    }
+
+    /* the number of scheduled tasks */
+    public int size() {
+        return size;
+    }
+}
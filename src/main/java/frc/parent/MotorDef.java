@@ -8,13 +8,16 @@ import static com.revrobotics.CANSparkMaxLowLevel.MotorType.*;
 
 public enum MotorDef {
 
-    ForwardLeftWheel("Forward Left Wheel", "FL", 2, true, kBrushless, kBrake), 
-    ForwardRightWheel("Forward Right Wheel", "FR", 5, false, kBrushless, kBrake),
-    BackLeftWheel("Back Left Wheel", "BL", 3, true, kBrushless, kBrake),
-    BackRightWheel("Back Right Wheel", "BR", 6, false, kBrushless, kBrake),
-    Climber("Climber", "CL", 4, false, kBrushless, kBrake),
-    Shooter("Shooter", "SH", 1, false, kBrushless, kCoast),
-    Shooter2("Shooter2", "SH2", 7, true, kBrushless, kCoast);
+    // the power channel must match the wiring of the power distribution panel/hub, NO_POWER_CHANNEL if unknown
+    ForwardLeftWheel("Forward Left Wheel", "FL", 2, true, kBrushless, kBrake, 0), 
+    ForwardRightWheel("Forward Right Wheel", "FR", 5, false, kBrushless, kBrake, 1),
+    BackLeftWheel("Back Left Wheel", "BL", 3, true, kBrushless, kBrake, 2),
+    BackRightWheel("Back Right Wheel", "BR", 6, false, kBrushless, kBrake, 3),
+    Climber("Climber", "CL", 4, false, kBrushless, kBrake, 4),
+    Shooter("Shooter", "SH", 1, false, kBrushless, kCoast, 5),
+    Shooter2("Shooter2", "SH2", 7, true, kBrushless, kCoast, 6);
+
+    public static final int NO_POWER_CHANNEL = -1;
 
     private final String name;
     private final String shortName;
@@ -22,14 +25,16 @@ public enum MotorDef {
     private final boolean inverted;
     private final MotorType type;
     private final IdleMode idleMode;
+    private final int powerChannel;
 
-    MotorDef(String name, String shortName, int canBusAddress, boolean invert, MotorType type, IdleMode idleMode) {
+    MotorDef(String name, String shortName, int canBusAddress, boolean invert, MotorType type, IdleMode idleMode, int powerChannel) {
         this.name = name;
         this.shortName = shortName;
         this.canBusAddress = canBusAddress;
         this.inverted = invert;
         this.type = type;
         this.idleMode = idleMode;
+        this.powerChannel = powerChannel;
     }
 
     public String getName() {
@@ -55,4 +60,8 @@ public enum MotorDef {
     public IdleMode getIdleMode() {
         return idleMode;
     }
+
+    public int getPowerChannel() {
+        return powerChannel;
+    }
 }
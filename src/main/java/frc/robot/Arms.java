@@ -2,6 +2,7 @@ package frc.robot;
 
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import frc.helpers.CCSparkMax;
+import frc.helpers.MotorBringUp;
 import frc.helpers.PneumaticsSystem;
 import frc.parent.MotorDef;
 import frc.parent.RobotMap;
@@ -9,7 +10,7 @@ import frc.parent.RobotMap;
 
 public class Arms {
  
-    public static CCSparkMax climber = new CCSparkMax(MotorDef.Climber);
+    public static CCSparkMax climber = MotorBringUp.get(MotorDef.Climber);
 
     public static PneumaticsSystem armSols = new PneumaticsSystem(PneumaticsModuleType.CTREPCM, RobotMap.ARM_SOLENOID_ONE, RobotMap.ARM_SOLENOID_TWO);
 
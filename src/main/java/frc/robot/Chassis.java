@@ -2,21 +2,24 @@ package frc.robot;
 
 import frc.parent.*;
 import frc.helpers.CCSparkMax;
+import frc.helpers.MotionProfile;
+import frc.helpers.MotorBringUp;
+import frc.helpers.StatusFrameManager;
 import com.kauailabs.navx.frc.AHRS;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
 
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj.SPI;
 import edu.wpi.first.wpilibj.Solenoid;
-import edu.wpi.first.wpilibj.Timer;
 
 public class Chassis {
 
     //These control the main 4 motors on the robot
 
-    public static CCSparkMax fLeft = new CCSparkMax(MotorDef.ForwardLeftWheel);
-    public static CCSparkMax fRight = new CCSparkMax(MotorDef.ForwardRightWheel);
-    public static CCSparkMax bLeft = new CCSparkMax(MotorDef.BackLeftWheel);
-    public static CCSparkMax bRight = new CCSparkMax(MotorDef.BackRightWheel);
+    public static CCSparkMax fLeft = MotorBringUp.get(MotorDef.ForwardLeftWheel);
+    public static CCSparkMax fRight = MotorBringUp.get(MotorDef.ForwardRightWheel);
+    public static CCSparkMax bLeft = MotorBringUp.get(MotorDef.BackLeftWheel);
+    public static CCSparkMax bRight = MotorBringUp.get(MotorDef.BackRightWheel);
 
     //AHRS gyro measures the angle of the bot
     public static AHRS gyro = new AHRS(SPI.Port.kMXP);
@@ -50,12 +53,23 @@ public class Chassis {
         bRight.set(OI.normalize(rSpeed, -1.0, 1.0));
     }
 
+    //The factor last written, teleop sets it every loop so it is only sent when it changes
+    private static double factor = Double.NaN;
+
+    //Bumped before and after every encoder reset or factor change, so it is odd while one is running
+    //Odometry skips the samples taken across a change instead of seeing the positions jump
+    private static volatile int encoderEpoch;
+
     public static void setFactor(double factor){
         //0.048 slow, 0.109 fast
+        if(factor == Chassis.factor) return;
+        Chassis.factor = factor;
+        encoderEpoch++;
         fLeft.setPositionConversionFactor(factor);
-        fLeft.setPositionConversionFactor(factor);
-        fLeft.setPositionConversionFactor(factor);
-        fLeft.setPositionConversionFactor(factor);
+        fRight.setPositionConversionFactor(factor);
+        bLeft.setPositionConversionFactor(factor);
+        bRight.setPositionConversionFactor(factor);
+        encoderEpoch++;
 
     }
 
@@ -63,13 +77,27 @@ public class Chassis {
     //Sets the gyro and encoders to zero
     public static void reset(){
         // gyro.reset();
+        encoderEpoch++;
         fLeft.reset();
         fRight.reset();
         bLeft.reset();
         bRight.reset();   
+        encoderEpoch++;
         
     }
 
+    public static int getEncoderEpoch(){
+        return encoderEpoch;
+    }
+
+    //getLDist() and getRDist() read the drive encoders every loop
+    public static void requireStatusFrames(StatusFrameManager frames){
+        frames.require(fLeft, PeriodicFrame.kStatus2, 20);
+        frames.require(fRight, PeriodicFrame.kStatus2, 20);
+        frames.require(bLeft, PeriodicFrame.kStatus2, 20);
+        frames.require(bRight, PeriodicFrame.kStatus2, 20);
+    }
+
     public static double getLDist(){
         double dist = (fLeft.getPosition() + bLeft.getPosition())/2;
         return dist;
@@ -89,80 +117,50 @@ public class Chassis {
     */
 
     //Drives the robot to a certain distance
-    //Kinda complex -> DO NOT TOUCH
-    public static void driveDist(double goal, double aPer, double kp, double max, boolean debug){
-        setFactor(0.048);
-        double aError = goal*aPer;
-
-        double lPos = getLDist();
-        double lError = goal-lPos;
-        double lSpd = 0;
-
-        double rPos = getRDist();
-        double rError = goal-rPos;
-        double rSpd = 0; 
-
-        while(true){
-            lPos = getLDist();
-            lError = goal-lPos;
-            lSpd = lError*kp;
-            lSpd = OI.normalize(lSpd, -max, max);
-
-            rPos = getRDist();
-            rError = goal-rPos;
-            rSpd = rError*kp;
-            rSpd = OI.normalize(rSpd, -max, max);
-
-            driveSpd(lSpd, rSpd);
-
-            if(debug){
-                System.out.println("Left - Left Speed: " + lSpd + 
-                                        " Left Error: " + lError + 
-                                        " Left Position: " + lPos);
-                System.out.println("Right - Right Speed: " + rSpd + 
-                                        " Right Error: " + rError + 
-                                        " Right Position" + rPos);
-                Timer.delay(0.5);
-            }
-
-            if(lError <= aError && rError <= aError){
-                driveSpd(0.0, 0.0);
-                System.out.println("YOINK, ya made it");
-                break; 
-            }
+    //Returns the move, it runs one step per MoveQueue.step() instead of holding the loop
+    public static Move driveDist(double goal, double aPer, double kp, double max, boolean debug){
+        return new DriveDistance(goal, aPer, kp, max, debug);
+    }
+
+    //Sets up the SparkMax onboard loop used by driveDistOnboard(), call once at startup
+    //kp and max work like in driveDist(), maxVel (RPM) and maxAccel (RPM/s) are only used by Smart Motion
+    //Only the parameters a controller doesn't already have are written, returns how many were
+    public static int configureOnboardDrive(double kp, double max, double maxVel, double maxAccel){
+        int writes = 0;
+        for(CCSparkMax m : new CCSparkMax[]{fLeft, fRight, bLeft, bRight}){
+            writes += m.configurePosition(kp, max, maxVel, maxAccel);
         }
+        return writes;
     }
 
-    //Turns the robot to a certain angle, a positive angle will turn right
-    //Kinda complex -> DO NOT TOUCH
-    public static void turnToAngle(double goal, double aPer, double kp, double max, boolean debug){
-        double aError = goal*aPer;
-
-        double angl = gyro.getAngle();
-        double error = goal-angl;
-        double input = 0;
-
-        while(true){
-            angl = gyro.getAngle();
-            error = goal-angl;
-            input = error*kp;
-            input = OI.normalize(input, -max, max);
-
-            driveSpd(input, -input);
-
-            if(debug){
-                System.out.println("Input: " + input);
-                System.out.println("Error: " + error);
-                System.out.println("Angle: " + angl);
-                Timer.delay(0.5);
-            }
-
-            if(error <= aError){
-                driveSpd(0.0, 0.0);
-                System.out.println("YOINK, ya made it");
-                break; 
-            }
+    //Drives the robot to a certain distance with the position loop on the controllers
+    //The target is sent once, the move only polls the encoders until it made it
+    public static Move driveDistOnboard(double goal, double aPer, boolean smartMotion){
+        return new OnboardDriveDistance(goal, aPer, smartMotion);
+    }
+
+    //Sends the same position target to the four drive controllers
+    public static void setTarget(double pos, boolean smartMotion){
+        for(CCSparkMax m : new CCSparkMax[]{fLeft, fRight, bLeft, bRight}){
+            if(smartMotion) m.setReferenceSmartMotion(pos);
+            else m.setReferencePosition(pos);
         }
     }
+
+    //Drives the robot along a precomputed profile from MotionProfiles, see FollowProfile
+    public static Move followDrive(MotionProfile profile, double kV, double kA, double kP, double max, double tolerance){
+        return new FollowProfile(profile, false, kV, kA, kP, max, tolerance);
+    }
+
+    //Turns the robot along a precomputed profile from MotionProfiles, a positive angle will turn right
+    public static Move followTurn(MotionProfile profile, double kV, double kA, double kP, double max, double tolerance){
+        return new FollowProfile(profile, true, kV, kA, kP, max, tolerance);
+    }
+
+    //Turns the robot to a certain angle, a positive angle will turn right
+    //Returns the move, it runs one step per MoveQueue.step() instead of holding the loop
+    public static Move turnToAngle(double goal, double aPer, double kp, double max, boolean debug){
+        return new TurnToAngle(goal, aPer, kp, max, debug);
+    }
     
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package frc.robot;
+
+//Drives straight to a distance, the same proportional control Chassis.driveDist() used to run in a loop
+public class DriveDistance extends Move {
+
+    //Prints the debug output every this many steps, about every 0.5 s
+    private static final int DEBUG_STEPS = 25;
+
+    private final double goal;
+    private final double aError;
+    private final double kp;
+    private final double max;
+    private final boolean debug;
+
+    private double lError;
+    private double rError;
+    private int steps;
+
+    /**
+     * @param goal the distance to drive
+     * @param aPer how close to the goal is close enough, as a fraction of goal
+     * @param kp the proportional gain
+     * @param max the fastest speed
+     * @param debug prints speed, error and position
+     */
+    public DriveDistance(double goal, double aPer, double kp, double max, boolean debug){
+        super("Drive " + goal);
+        this.goal = goal;
+        this.aError = goal*aPer;
+        this.kp = kp;
+        this.max = max;
+        this.debug = debug;
+        this.lError = goal;
+        this.rError = goal;
+    }
+
+    @Override
+    protected void begin(){
+        Chassis.setFactor(0.048);
+    }
+
+    @Override
+    protected boolean update(){
+        double lPos = Chassis.getLDist();
+        lError = goal-lPos;
+        double lSpd = OI.normalize(lError*kp, -max, max);
+
+        double rPos = Chassis.getRDist();
+        rError = goal-rPos;
+        double rSpd = OI.normalize(rError*kp, -max, max);
+
+        if(lError <= aError && rError <= aError){
+            Chassis.driveSpd(0.0, 0.0);
+            System.out.println("YOINK, ya made it");
+            return true;
+        }
+
+        Chassis.driveSpd(lSpd, rSpd);
+
+        if(debug && steps++ % DEBUG_STEPS == 0){
+            System.out.println("Left - Left Speed: " + lSpd +
+                                    " Left Error: " + lError +
+                                    " Left Position: " + lPos);
+            System.out.println("Right - Right Speed: " + rSpd +
+                                    " Right Error: " + rError +
+                                    " Right Position" + rPos);
+        }
+        return false;
+    }
+
+    @Override
+    protected void end(){
+        Chassis.driveSpd(0.0, 0.0);
+    }
+
+    @Override
+    public double getProgress(){
+        if(goal == 0) return isDone() ? 1 : 0;
+        return OI.normalize(1 - Math.max(lError, rError)/goal, 0, 1);
+    }
+}
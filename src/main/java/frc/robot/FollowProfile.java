@@ -0,0 +1,99 @@
+package frc.robot;
+
+import frc.helpers.MotionProfile;
+
+//Follows a precomputed MotionProfile, either driving straight or turning in place
+//Each step only looks up the sample for the time since the move started and adds a proportional
+//correction, so there is no profile math or allocation while autonomous is running
+//A positive turn profile will turn right
+public class FollowProfile extends Move {
+
+    private final MotionProfile profile;
+    private final boolean turn;
+    private final double kV;
+    private final double kA;
+    private final double kP;
+    private final double max;
+    private final double tolerance;
+
+    private double lStart;
+    private double rStart;
+    private double lError;
+    private double rError;
+
+    /**
+     * @param profile the profile to follow, in drive units or degrees
+     * @param turn follows the profile with the gyro angle instead of the drive encoders
+     * @param kV the output per unit/s of profile velocity
+     * @param kA the output per unit/s^2 of profile acceleration
+     * @param kP the output per unit of position error
+     * @param max the fastest speed, like driveDist() and turnToAngle()
+     * @param tolerance how far from the end of the profile is close enough, in units
+     */
+    public FollowProfile(MotionProfile profile, boolean turn, double kV, double kA, double kP, double max, double tolerance){
+        super((turn ? "Turn Profile " : "Drive Profile ") + profile.getName());
+        this.profile = profile;
+        this.turn = turn;
+        this.kV = kV;
+        this.kA = kA;
+        this.kP = kP;
+        this.max = max;
+        this.tolerance = tolerance;
+        this.lError = profile.getGoal();
+        this.rError = profile.getGoal();
+    }
+
+    @Override
+    protected void begin(){
+        if(turn){
+            lStart = Chassis.gyro.getAngle();
+        }else{
+            Chassis.setFactor(0.048);
+            lStart = Chassis.getLDist();
+            rStart = Chassis.getRDist();
+        }
+    }
+
+    @Override
+    protected boolean update(){
+        int i = profile.indexAt(elapsed());
+        double pos = profile.getPosition(i);
+        double feedForward = kV*profile.getVelocity(i) + kA*profile.getAcceleration(i);
+
+        if(turn){
+            lError = pos-(Chassis.gyro.getAngle()-lStart);
+            rError = lError;
+        }else{
+            lError = pos-(Chassis.getLDist()-lStart);
+            rError = pos-(Chassis.getRDist()-rStart);
+        }
+
+        if(i == profile.size()-1 && Math.abs(lError) <= tolerance && Math.abs(rError) <= tolerance){
+            Chassis.driveSpd(0.0, 0.0);
+            System.out.println("YOINK, ya made it");
+            return true;
+        }
+
+        if(turn){
+            double input = OI.normalize(feedForward + kP*lError, -max, max);
+            Chassis.driveSpd(input, -input);
+        }else{
+            double lSpd = OI.normalize(feedForward + kP*lError, -max, max);
+            double rSpd = OI.normalize(feedForward + kP*rError, -max, max);
+            Chassis.driveSpd(lSpd, rSpd);
+        }
+        return false;
+    }
+
+    @Override
+    protected void end(){
+        Chassis.driveSpd(0.0, 0.0);
+    }
+
+    @Override
+    public double getProgress(){
+        double goal = profile.getGoal();
+        if(goal == 0) return isDone() ? 1 : 0;
+        return OI.normalize(1 - Math.max(Math.abs(lError), Math.abs(rError))/Math.abs(goal), 0, 1);
+    }
+}
@@ -0,0 +1,87 @@
+package frc.robot;
+
+import frc.helpers.Timer;
+
+//A move the robot makes in autonomous, one step per periodic call so it never holds the loop
+//step() starts the move on its first call, then returns true once it is done or has timed out
+//Subclasses only do the math for one step in update(), see DriveDistance and TurnToAngle
+public abstract class Move {
+
+    //No single move should take longer than the whole autonomous period
+    public static final double DEFAULT_TIMEOUT = 15.0;
+
+    private final String name;
+    private final Timer timer = new Timer(DEFAULT_TIMEOUT);
+    private boolean started;
+    private boolean done;
+    private boolean timedOut;
+
+    protected Move(String name){
+        this.name = name;
+    }
+
+    //Stops the move after this many seconds, even if it didn't make it
+    public Move withTimeout(double seconds){
+        timer.set(seconds);
+        return this;
+    }
+
+    //Runs one step of the move, returns true once it is done
+    public final boolean step(){
+        if(done) return true;
+        if(!started){
+            started = true;
+            timer.start();
+            begin();
+        }
+
+        if(update()){
+            done = true;
+            timer.stop();
+        }else if(timer.triggered()){
+            timedOut = true;
+            done = true;
+            end();
+            System.out.println(name + " timed out after " + timer.elapsed() + " s");
+        }
+        return done;
+    }
+
+    //Stops the move where it is
+    public void cancel(){
+        if(started && !done){
+            done = true;
+            timer.stop();
+            end();
+        }
+    }
+
+    //Called once before the first update()
+    protected void begin(){}
+
+    //One step towards the goal, returns true and stops the motors once it made it
+    protected abstract boolean update();
+
+    //Stops the motors after a timeout or cancel()
+    protected abstract void end();
+
+    //How far along the move is, from 0 to 1
+    public abstract double getProgress();
+
+    public boolean isDone(){
+        return done;
+    }
+
+    public boolean isTimedOut(){
+        return timedOut;
+    }
+
+    //How long the move has been running for in seconds
+    public double elapsed(){
+        return timer.elapsed();
+    }
+
+    public String getName(){
+        return name;
+    }
+}
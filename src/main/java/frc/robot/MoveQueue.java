@@ -0,0 +1,57 @@
+package frc.robot;
+
+import java.util.ArrayDeque;
+
+//Runs autonomous moves one after the other, call step() once per periodic call
+public class MoveQueue {
+
+    private final ArrayDeque<Move> moves = new ArrayDeque<>();
+    private int total;
+    private int finished;
+
+    //Adds a move to run after the ones already queued
+    public MoveQueue add(Move move){
+        moves.addLast(move);
+        total++;
+        return this;
+    }
+
+    //Runs one step of the current move, returns true once every move is done
+    public boolean step(){
+        Move move = moves.peekFirst();
+        if(move == null) return true;
+
+        if(move.step()){
+            moves.pollFirst();
+            finished++;
+            System.out.printf("Move %d/%d: %s %s in %.2f s%n", finished, total, move.getName(),
+                move.isTimedOut() ? "timed out" : "done", move.elapsed());
+        }
+        return moves.isEmpty();
+    }
+
+    //Stops the current move and drops the rest
+    public void clear(){
+        Move move = moves.peekFirst();
+        if(move != null) move.cancel();
+        moves.clear();
+        total = 0;
+        finished = 0;
+    }
+
+    public boolean isDone(){
+        return moves.isEmpty();
+    }
+
+    //The move running now, null once every move is done
+    public Move current(){
+        return moves.peekFirst();
+    }
+
+    //How far along all the queued moves are, from 0 to 1
+    public double getProgress(){
+        if(total == 0) return 1;
+        Move move = moves.peekFirst();
+        return (finished + (move == null ? 0 : move.getProgress()))/total;
+    }
+}
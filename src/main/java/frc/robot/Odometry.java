@@ -0,0 +1,215 @@
+package frc.robot;
+
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import frc.diagnostics.DiagnosticsIF;
+import frc.diagnostics.PoseSnapshot;
+import frc.diagnostics.SnapshotBuffer;
+import frc.diagnostics.TelemetryEntry;
+import frc.diagnostics.WidgetBuilder;
+import frc.helpers.CCSparkMax;
+import frc.helpers.StatusFrameManager;
+
+//Tracks where the robot is from the four drive encoders and the navX gyro on its own Notifier thread,
+//at a fixed rate instead of only when the control code happens to read them
+//Each pass is published through a SnapshotBuffer, so the control loop and the diagnostics get a
+//consistent pose from readPose() without ever waiting on the odometry thread or on each other
+//The heading comes from the gyro, and from the encoders while the gyro is disconnected
+public class Odometry implements DiagnosticsIF {
+
+    //The encoders can still send the old positions for a couple of frames after a reset
+    private static final long SETTLE_MICROS = 50_000;
+    //Weight of the newest velocity sample, a position only changes when its status frame arrives
+    private static final double VELOCITY_SMOOTHING = 0.3;
+
+    private final double period;
+    private final double trackWidth;
+    private final Notifier notifier = new Notifier(this::update);
+
+    //Only touched by the odometry thread
+    private final PoseSnapshot working = new PoseSnapshot();
+    private final SnapshotBuffer<PoseSnapshot> snapshots = new SnapshotBuffer<>(new PoseSnapshot(), new PoseSnapshot());
+    private int lastEpoch = -1;
+    private long settleUntil;
+    private long lastTime;
+    private double lastL;
+    private double lastR;
+    private double x;
+    private double y;
+    private double heading;
+    private double gyroOffset;
+    private boolean gyroWasConnected;
+    private double lVel;
+    private double rVel;
+
+    //Set by resetPose() on any thread, handled by the odometry thread so it stays the only writer
+    private volatile boolean resetRequested = true;
+
+    //Only touched by updateStatus(), which may run on the diagnostics sampler thread
+    private final ShuffleboardTab driveTab = Shuffleboard.getTab("Drive");
+    private final PoseSnapshot status = new PoseSnapshot();
+    private TelemetryEntry xEntry;
+    private TelemetryEntry yEntry;
+    private TelemetryEntry headingEntry;
+    private TelemetryEntry speedEntry;
+    private TelemetryEntry gyroEntry;
+
+    /**
+     * @param period seconds between updates, 0.005 to 0.01 for 100 to 200 Hz
+     * @param trackWidth the distance between the left and right wheels in drive units, only used without the gyro
+     */
+    public Odometry(double period, double trackWidth){
+        this.period = period;
+        this.trackWidth = trackWidth;
+    }
+
+    public void start(){
+        notifier.setName("Odometry");
+        notifier.startPeriodic(period);
+    }
+
+    public void stop(){
+        notifier.stop();
+    }
+
+    //Moves the pose back to 0, 0 facing forward, on the next update
+    public void resetPose(){
+        resetRequested = true;
+    }
+
+    /**
+     * Copies the most recent pose into dest.  Safe to call from any thread.
+     * @return the generation of the copied pose, 0 if there hasn't been an update yet
+     */
+    public long readPose(PoseSnapshot dest){
+        return snapshots.read(dest);
+    }
+
+    public long getGeneration(){
+        return snapshots.getGeneration();
+    }
+
+    //The drive positions are read every update, so they have to be sent that often
+    public void requireStatusFrames(StatusFrameManager frames){
+        int periodMs = (int) Math.round(period*1000);
+        for(CCSparkMax m : new CCSparkMax[]{Chassis.fLeft, Chassis.fRight, Chassis.bLeft, Chassis.bRight}){
+            frames.require(m, PeriodicFrame.kStatus2, periodMs);
+        }
+    }
+
+    private void update(){
+        try{
+            sample();
+        }catch(RuntimeException e){
+            System.err.println("Odometry: " + e);
+        }
+    }
+
+    private void sample(){
+        int epoch = Chassis.getEncoderEpoch();
+        long now = RobotController.getFPGATime();
+        double l = Chassis.getLDist();
+        double r = Chassis.getRDist();
+        boolean connected = Chassis.gyro.isConnected();
+        double angle = connected ? Chassis.gyro.getAngle() : 0;
+        double rate = connected ? Chassis.gyro.getRate() : 0;
+
+        if((epoch & 1) != 0 || epoch != Chassis.getEncoderEpoch()){
+            //The encoders were reset or rescaled while they were read, try again next time
+            return;
+        }
+        if(epoch != lastEpoch){
+            lastEpoch = epoch;
+            settleUntil = now + SETTLE_MICROS;
+        }
+        if(resetRequested){
+            resetRequested = false;
+            x = 0;
+            y = 0;
+            heading = 0;
+            gyroOffset = -angle;
+        }
+
+        //Starts over from wherever the encoders are until they settled after a change
+        double dt = (now - lastTime)/1e6;
+        boolean settled = now >= settleUntil && lastTime != 0;
+        double dl = settled ? l-lastL : 0;
+        double dr = settled ? r-lastR : 0;
+        lastL = l;
+        lastR = r;
+        lastTime = now;
+
+        if(settled && dt > 0){
+            lVel += VELOCITY_SMOOTHING*(dl/dt - lVel);
+            rVel += VELOCITY_SMOOTHING*(dr/dt - rVel);
+        }
+
+        double lastHeading = heading;
+        if(connected){
+            //Picks up from the encoder heading when the gyro comes back
+            if(!gyroWasConnected) gyroOffset = heading-angle;
+            heading = angle+gyroOffset;
+        }else{
+            heading += Math.toDegrees((dl-dr)/trackWidth);
+            rate = Math.toDegrees((lVel-rVel)/trackWidth);
+        }
+        gyroWasConnected = connected;
+
+        //Drives along the average heading of this step, the heading is clockwise so y is to the right
+        double d = (dl+dr)/2;
+        double mid = Math.toRadians((lastHeading+heading)/2);
+        x += d*Math.cos(mid);
+        y += d*Math.sin(mid);
+
+        working.setTimestamp(now);
+        working.setPosition(x, y);
+        working.setHeading(heading);
+        working.setDistances(l, r);
+        working.setVelocities(lVel, rVel);
+        working.setTurnRate(rate);
+        working.setGyroConnected(connected);
+        snapshots.publish(working);
+    }
+
+    @Override
+    public void init(){
+        String title = driveTab.getTitle();
+        WidgetBuilder.add(title, () -> xEntry = textView("Pose X", 0.01));
+        WidgetBuilder.add(title, () -> yEntry = textView("Pose Y", 0.01));
+        WidgetBuilder.add(title, () -> headingEntry = textView("Heading", 0.5));
+        WidgetBuilder.add(title, () -> speedEntry = textView("Speed", 0.01));
+        WidgetBuilder.add(title, () ->
+            gyroEntry = new TelemetryEntry(driveTab.add("Gyro Connected", false)
+                .withWidget(BuiltInWidgets.kBooleanBox)
+                .getEntry(), 0));
+    }
+
+    private TelemetryEntry textView(String label, double deadband){
+        NetworkTableEntry entry = driveTab.add(label, 0)
+            .withWidget(BuiltInWidgets.kTextView)
+            .getEntry();
+        return new TelemetryEntry(entry, deadband);
+    }
+
+    @Override
+    public void updateStatus(){
+        if(readPose(status) == 0) return;
+
+        TelemetryEntry entry = xEntry;
+        if(entry != null) entry.setDouble(status.getX());
+        entry = yEntry;
+        if(entry != null) entry.setDouble(status.getY());
+        entry = headingEntry;
+        if(entry != null) entry.setDouble(status.getHeading());
+        entry = speedEntry;
+        if(entry != null) entry.setDouble(status.getForwardVelocity());
+        entry = gyroEntry;
+        if(entry != null) entry.setBoolean(status.isGyroConnected());
+    }
+}
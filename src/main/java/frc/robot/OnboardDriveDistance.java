@@ -0,0 +1,62 @@
+package frc.robot;
+
+//Drives straight to a distance with the position loop on the SparkMax controllers
+//The targets are sent once in begin(), the controllers close the loop at about 1 kHz
+//and update() only reads the encoders to see whether the robot made it
+//Call Chassis.configureOnboardDrive() once at startup first
+public class OnboardDriveDistance extends Move {
+
+    //Close enough in drive units however short the goal is, aPer of a 0 goal would never be reached
+    private static final double MIN_ERROR = 0.01;
+
+    private final double goal;
+    private final double aError;
+    private final boolean smartMotion;
+
+    private double lError;
+    private double rError;
+
+    /**
+     * @param goal the distance to drive
+     * @param aPer how close to the goal is close enough, as a fraction of goal, at least MIN_ERROR
+     * @param smartMotion follows a Smart Motion profile instead of a plain position loop
+     */
+    public OnboardDriveDistance(double goal, double aPer, boolean smartMotion){
+        super((smartMotion ? "Smart Motion " : "Onboard Drive ") + goal);
+        this.goal = goal;
+        this.aError = Math.max(Math.abs(goal*aPer), MIN_ERROR);
+        this.smartMotion = smartMotion;
+        this.lError = goal;
+        this.rError = goal;
+    }
+
+    @Override
+    protected void begin(){
+        Chassis.setFactor(0.048);
+        Chassis.setTarget(goal, smartMotion);
+    }
+
+    @Override
+    protected boolean update(){
+        lError = goal-Chassis.getLDist();
+        rError = goal-Chassis.getRDist();
+
+        if(Math.abs(lError) <= aError && Math.abs(rError) <= aError){
+            Chassis.driveSpd(0.0, 0.0);
+            System.out.println("YOINK, ya made it");
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void end(){
+        Chassis.driveSpd(0.0, 0.0);
+    }
+
+    @Override
+    public double getProgress(){
+        if(goal == 0) return isDone() ? 1 : 0;
+        return OI.normalize(1 - Math.max(Math.abs(lError), Math.abs(rError))/Math.abs(goal), 0, 1);
+    }
+}
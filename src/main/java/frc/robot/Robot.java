@@ -7,14 +7,38 @@
 
 package frc.robot;
 
+import java.io.File;
+
 import edu.wpi.first.wpilibj.Compressor;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import frc.diagnostics.BlackBoxRecorder;
+import frc.diagnostics.CANMonitor;
 import frc.diagnostics.DiagnosticsIF;
 import frc.diagnostics.DiagnosticsNoLayout;
+import frc.diagnostics.DiagnosticsProfile;
+import frc.diagnostics.DiagnosticsProfiles;
+import frc.diagnostics.DiagnosticsSampler;
+import frc.diagnostics.FaultJournal;
+import frc.diagnostics.LoopTiming;
+import frc.diagnostics.MotorDataType;
+import frc.diagnostics.MotorUpdate;
 import frc.diagnostics.PowerStatus;
+import frc.diagnostics.RoundRobinScheduler;
+import frc.diagnostics.StatsStatus;
+import frc.diagnostics.TelemetryLogger;
+import frc.diagnostics.TelemetryStatus;
+import frc.diagnostics.WidgetBuilder;
+import frc.helpers.CCSparkMax;
+import frc.helpers.DeferredExecutor;
+import frc.helpers.MotionProfile;
+import frc.helpers.MotionProfiles;
+import frc.helpers.MotorBringUp;
+import frc.helpers.StatusFrameManager;
+import frc.helpers.Timer;
 import frc.parent.ControMap;
 import frc.parent.RobotMap;
 
@@ -29,11 +53,75 @@ public class Robot extends TimedRobot {
   private static final String kDefaultAuto = "Default";
   private static final String kCustomAuto = "My Auto";
   private static final String kResetPIDs = "Reset PIDs";
+  // each telemetry log is at most kTelemetryLogMaxBytes, the oldest are deleted past the count or total size
+  private static final long kTelemetryLogMaxBytes = 32L << 20;
+  private static final int kTelemetryLogsKept = 10;
+  private static final long kTelemetryLogsMaxBytes = 128L << 20;
+  // refresh diagnostics on a background thread instead of inside robotPeriodic()
+  private static final boolean kBackgroundDiagnostics = false;
+  private static final double kDiagnosticsPeriod = 1.0;
+  // otherwise spread the refresh across the loops, each value at its own rate, using at most this much time per loop
+  private static final long kDiagnosticsBudgetNanos = 500_000;
+  // the black box keeps this many seconds before a fault or a PDP voltage below kBrownoutVoltage
+  private static final double kBlackBoxWindow = 5.0;
+  private static final double kBrownoutVoltage = 7.0;
+  // the dashboard widgets are created after robotInit(), this many per disabled loop
+  private static final int kWidgetsPerCycle = 10;
+  // the diagnostics and their status frames are slowed down above these CAN bus utilizations
+  private static final double kCANReducedUtilization = 0.6;
+  private static final double kCANMinimalUtilization = 0.8;
+  // in the pit every value is sampled this often, in a match only the faults and a few critical values
+  private static final int kPitPeriodMs = 20;
+  private static final int kMatchFaultPeriodMs = 100;
+  private static final int kMatchTempPeriodMs = 1000;
+  private static final int kMatchCurrentPeriodMs = 100;
+  // long Timer triggered actions run on a worker, at most this many at a time
+  private static final int kDeferredActions = 8;
+  // no autonomous move may take longer than this
+  private static final double kMoveTimeout = 5.0;
+  // drive distances with the position loop on the SparkMax controllers instead of on the roboRIO
+  private static final boolean kOnboardDrive = true;
+  private static final boolean kSmartMotion = false;
+  private static final double kDriveKp = 0.04;
+  private static final double kDriveMax = 0.25;
+  private static final double kTurnMax = 0.25;
+  private static final double kSmartMotionMaxVel = 2000;
+  private static final double kSmartMotionMaxAccel = 1500;
+  // autonomous follows the profiles in deploy/profiles when there is one for the distance or angle
+  // the profiles' top speed times kV plus their acceleration times kA stays under kDriveMax and kTurnMax,
+  // change ProfileGenerator with these
+  private static final double kProfileDriveKv = 0.25;
+  private static final double kProfileDriveKa = 0.02;
+  private static final double kProfileDriveKp = 1.0;
+  private static final double kProfileDriveTolerance = 0.05;
+  private static final double kProfileTurnKv = 0.0015;
+  private static final double kProfileTurnKa = 0.0001;
+  private static final double kProfileTurnKp = 0.02;
+  private static final double kProfileTurnTolerance = 2.0;
+  // the pose is updated on its own thread this often, the drive position frames are sent as often
+  private static final double kOdometryPeriod = 0.01;
+  // between the left and right wheels in drive units, only used while the gyro is disconnected
+  private static final double kTrackWidth = 0.6;
   private String m_autoSelected;
   private final SendableChooser<String> m_chooser = new SendableChooser<>();
   private Compressor c = new Compressor(PneumaticsModuleType.REVPH);
+  private final DeferredExecutor deferred = new DeferredExecutor("Deferred Actions", kDeferredActions);
+  // the autonomous moves, one step per autonomousPeriodic()
+  private final MoveQueue autoMoves = new MoveQueue();
   private DiagnosticsIF[] diagnostics;
-  private long periodicCount;
+  private BlackBoxRecorder blackBox;
+  private TelemetryLogger telemetryLog;
+  private FaultJournal faultJournal;
+  private StatsStatus stats;
+  private CANMonitor canMonitor;
+  private StatusFrameManager statusFrames;
+  private Odometry odometry;
+  // how long each part of the loop takes, published on the Timing tab
+  private LoopTiming loopTiming;
+  private int loopPhase;
+  private int robotPeriodicPhase;
+  private int autonomousPeriodicPhase;
+  private int teleopPeriodicPhase;
   int alliance;
   double spdmlt = 1;
 
@@ -44,13 +132,57 @@ public class Robot extends TimedRobot {
   @Override
   public void robotInit() {
     
+    long loopBudget = (long) (getPeriod() * 1e9);
+    loopTiming = new LoopTiming(getPeriod(), kDiagnosticsPeriod);
+    loopPhase = loopTiming.addPhase("Loop", loopBudget);
+    robotPeriodicPhase = loopTiming.addPhase("robotPeriodic", loopBudget);
+    autonomousPeriodicPhase = loopTiming.addPhase("autonomousPeriodic", loopBudget);
+    teleopPeriodicPhase = loopTiming.addPhase("teleopPeriodic", loopBudget);
+
+    // creates and configures every controller concurrently before the subsystems ask for them
+    MotorBringUp.bringUp();
+    CCSparkMax[] motors = { Chassis.fLeft, Chassis.fRight, Chassis.bLeft, Chassis.bRight, TedBallin.shooter, TedBallin.shooter2, Arms.climber };
+    PowerStatus powerStatus = new PowerStatus();
+    // picked from the chooser on the Summary tab, or by whether the FMS is attached
+    DiagnosticsProfile pitProfile = new DiagnosticsProfile("Pit", DiagnosticsNoLayout.class, motors)
+      .sampleAll(kPitPeriodMs);
+    DiagnosticsProfile matchProfile = new DiagnosticsProfile("Match", DiagnosticsNoLayout.class, motors)
+      .sample(MotorDataType.FAULTS, kMatchFaultPeriodMs)
+      .sample(MotorDataType.TEMP, kMatchTempPeriodMs)
+      .sample(MotorDataType.PDP_CURRENT, kMatchCurrentPeriodMs);
+    DiagnosticsProfiles motorDiagnostics = new DiagnosticsProfiles(pitProfile, matchProfile);
+    motorDiagnostics.setPowerStatus(powerStatus);
+    faultJournal = new FaultJournal(motors);
+    // reads the layout's MotorUpdate in init(), so it is listed after the layout
+    stats = new StatsStatus(motorDiagnostics::getMotorUpdate, powerStatus);
+    canMonitor = new CANMonitor(kCANReducedUtilization, kCANMinimalUtilization);
+    odometry = new Odometry(kOdometryPeriod, kTrackWidth);
+
     diagnostics = new DiagnosticsIF[] {
-      new DiagnosticsNoLayout(Chassis.fLeft, Chassis.fRight, Chassis.bLeft, Chassis.bRight, TedBallin.shooter, TedBallin.shooter2, Arms.climber),
+      motorDiagnostics,
       // new DiagnosticsListLayout(Chassis.fLeft, Chassis.fRight, Chassis.bLeft, Chassis.bRight),
       // new DiagnosticsGridLayout(Chassis.fLeft, Chassis.fRight, Chassis.bLeft, Chassis.bRight),
-      new PowerStatus()
+      powerStatus,
+      canMonitor,
+      odometry,
+      faultJournal,
+      stats,
+      new TelemetryStatus()
     };
 
+    blackBox = new BlackBoxRecorder(getPeriod(), kBlackBoxWindow, kBrownoutVoltage, faultJournal, powerStatus, motors);
+    MotorUpdate.addFaultListener(blackBox);
+
+    if (kBackgroundDiagnostics) {
+      diagnostics = new DiagnosticsIF[] { new DiagnosticsSampler(kDiagnosticsPeriod, diagnostics) };
+    } else {
+      RoundRobinScheduler scheduler = new RoundRobinScheduler(getPeriod(), kDiagnosticsPeriod, kDiagnosticsBudgetNanos, diagnostics);
+      scheduler.setLoopTiming(loopTiming, kDiagnosticsBudgetNanos);
+      diagnostics = new DiagnosticsIF[] { scheduler };
+    }
+    canMonitor.addThrottled(diagnostics[0]);
+    motorDiagnostics.setScheduler(diagnostics[0]);
+
     m_chooser.addOption("My Auto", kCustomAuto);
     m_chooser.setDefaultOption("Default Auto", kDefaultAuto);
     m_chooser.addOption("Reset PID Values", kResetPIDs);
@@ -58,6 +190,8 @@ public class Robot extends TimedRobot {
     // SmartDashboard.putNumber("Angle", 0.0);
     // SmartDashboard.putData("Auto choices", m_chooser);
     Chassis.reset();
+    System.out.println("Onboard drive: " + Chassis.configureOnboardDrive(kDriveKp, kDriveMax, kSmartMotionMaxVel, kSmartMotionMaxAccel) + " parameter(s) written");
+    MotionProfiles.loadAll(new File(Filesystem.getDeployDirectory(), "profiles"));
 
     switch(DriverStation.getAlliance()){
       case Blue:
@@ -76,6 +210,22 @@ public class Robot extends TimedRobot {
     for(DiagnosticsIF d : diagnostics) {
       d.init();
     }
+    loopTiming.init();
+
+    // only send the status frames somebody reads, at the rate they are read
+    statusFrames = new StatusFrameManager();
+    motorDiagnostics.requireStatusFrames(statusFrames, kDiagnosticsPeriod);
+    blackBox.requireStatusFrames(statusFrames, getPeriod());
+    Chassis.requireStatusFrames(statusFrames);
+    odometry.requireStatusFrames(statusFrames);
+    statusFrames.apply();
+    canMonitor.setStatusFrames(statusFrames);
+
+    // logs what the diagnostics sampled, so it can only start once they are initialized
+    telemetryLog = new TelemetryLogger(motorDiagnostics.getMotorUpdate(), powerStatus,
+      kTelemetryLogMaxBytes, kTelemetryLogsKept, kTelemetryLogsMaxBytes);
+
+    odometry.start();
 
     
   }
@@ -91,18 +241,48 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void robotPeriodic() {
+    long start = System.nanoTime();
     
-    // call updateStatus once per second
-    if (periodicCount++ % 100 == 0) {
-      for(DiagnosticsIF d : diagnostics) {
-        d.updateStatus();
-      }
+    // enabled before every widget was created, keep going at one per loop
+    if (!isDisabled()) {
+      WidgetBuilder.build(1);
+    }
+
+    Timer.tick();
+    canMonitor.poll();
+    // the black box takes the faults the journal just read
+    faultJournal.poll();
+    blackBox.record();
+    // a controller that rebooted is back to the default frame periods, after the journal saw its kHasReset
+    statusFrames.checkResets();
+    telemetryLog.log();
+
+    // runs one RoundRobinScheduler cycle, a no-op when the DiagnosticsSampler thread owns the refresh
+    for(DiagnosticsIF d : diagnostics) {
+      d.updateStatus();
     }
     
     if(RobotMap.COMPRESSOR_ENABLE)
       c.enableDigital();
     else 
       c.disable();
+
+    loopTiming.record(robotPeriodicPhase, start);
+  }
+
+  /**
+   * Runs the completions of the deferred actions that finished, then times the
+   * whole loop: the mode specific periodic function, robotPeriodic() and the
+   * LiveWindow and SmartDashboard updates.
+   */
+  @Override
+  protected void loopFunc() {
+    long start = System.nanoTime();
+    // the results of the actions that finished on the worker since the last loop
+    deferred.runCompleted();
+    super.loopFunc();
+    loopTiming.record(loopPhase, start);
+    loopTiming.endLoop();
   }
 
   /**
@@ -118,7 +298,11 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void autonomousInit() {
+    stats.clearMatch();
+    loopTiming.clear();
+    autoMoves.clear();
     Chassis.reset();
+    odometry.resetPose();
     m_autoSelected = m_chooser.getSelected();
     System.out.println("Auto selected: " + m_autoSelected);
     
@@ -128,10 +312,16 @@ public class Robot extends TimedRobot {
       case kCustomAuto:
         break;
       case kDefaultAuto:
-        Chassis.driveDist(dist, 0.05, 0.04, 0.25, false);
-        Chassis.turnToAngle(angl, 0.005, 0.5, 0.25, false);
+        autoMoves.add(driveMove(dist).withTimeout(kMoveTimeout));
+        autoMoves.add(turnMove(angl).withTimeout(kMoveTimeout));
         break;
       case kResetPIDs:
+        // the parameter writes block on CAN for a while, so they run on the worker
+        if (!deferred.submit(
+            () -> Chassis.configureOnboardDrive(kDriveKp, kDriveMax, kSmartMotionMaxVel, kSmartMotionMaxAccel),
+            writes -> System.out.println("PID values reset, " + writes + " parameter(s) written"))) {
+          System.err.println("PID values not reset, too many deferred actions");
+        }
         break;
       default:
         break;
@@ -139,15 +329,42 @@ public class Robot extends TimedRobot {
 
   }
 
+  // follows the precomputed profile for dist if there is one, otherwise drives with a position loop
+  private Move driveMove(double dist) {
+    MotionProfile profile = MotionProfiles.get(MotionProfiles.driveName(dist));
+    if (profile != null) {
+      return Chassis.followDrive(profile, kProfileDriveKv, kProfileDriveKa, kProfileDriveKp, kDriveMax, kProfileDriveTolerance);
+    }
+    if (kOnboardDrive) {
+      return Chassis.driveDistOnboard(dist, 0.05, kSmartMotion);
+    }
+    return Chassis.driveDist(dist, 0.05, kDriveKp, kDriveMax, false);
+  }
+
+  // follows the precomputed profile for angl if there is one, otherwise turns with the gyro loop
+  private Move turnMove(double angl) {
+    MotionProfile profile = MotionProfiles.get(MotionProfiles.turnName(angl));
+    if (profile != null) {
+      return Chassis.followTurn(profile, kProfileTurnKv, kProfileTurnKa, kProfileTurnKp, kTurnMax, kProfileTurnTolerance);
+    }
+    return Chassis.turnToAngle(angl, 0.005, 0.5, kTurnMax, false);
+  }
+
   /**
    * This function is called periodically during autonomous.
    */
   @Override
   public void autonomousPeriodic() {
+    long start = System.nanoTime();
+    autoMoves.step();
+
+    loopTiming.record(autonomousPeriodicPhase, start);
   }
 
   @Override
   public void teleopInit() {
+    autoMoves.clear();
+    loopTiming.clear();
   }
 
   /**
@@ -155,6 +372,7 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void teleopPeriodic() {
+    long start = System.nanoTime();
     // System.out.println("method teleopPeriodic() entry");
     Chassis.axisDrive(OI.axis(ControMap.L_JOYSTICK_VERTICAL),
                       OI.axis(ControMap.R_JOYSTICK_HORIZONTAL), 0.5);
@@ -167,6 +385,7 @@ public class Robot extends TimedRobot {
       Chassis.setFactor(0.109);
     }
 
+    loopTiming.record(teleopPeriodicPhase, start);
   }
 
   /**
@@ -174,6 +393,16 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void disabledInit() {
+    autoMoves.clear();
+    telemetryLog.flush();
+  }
+
+  /**
+   * This function is called periodically while disabled.
+   */
+  @Override
+  public void disabledPeriodic() {
+    WidgetBuilder.build(kWidgetsPerCycle);
   }
 
   /**
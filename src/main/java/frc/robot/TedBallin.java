@@ -1,5 +1,6 @@
 package frc.robot;
 import frc.helpers.CCSparkMax;
+import frc.helpers.MotorBringUp;
 import frc.helpers.Timer;
 import frc.parent.MotorDef;
 // import edu.wpi.first.wpilibj.PneumaticsModuleType;
@@ -23,9 +24,9 @@ public class TedBallin {
     // public static CCSparkMax shooter2 = new CCSparkMax("Shooter 2", "S2", RobotMap.SHOOTER2,
     //     MotorType.kBrushless, IdleMode.kCoast, RobotMap.SHOOTER_REVERSE, true);
 
-    public static CCSparkMax shooter = new CCSparkMax(MotorDef.Shooter);
+    public static CCSparkMax shooter = MotorBringUp.get(MotorDef.Shooter);
 
-    public static CCSparkMax shooter2 = new CCSparkMax(MotorDef.Shooter2);
+    public static CCSparkMax shooter2 = MotorBringUp.get(MotorDef.Shooter2);
 
     // public static CCSparkMax loader = new CCSparkMax("Loader", "L", RobotMap.LOADER,
     //     MotorType.kBrushless, IdleMode.kBrake, RobotMap.LOADER_REVERSE, true);
@@ -0,0 +1,68 @@
+package frc.robot;
+
+//Turns in place to a gyro angle, the same proportional control Chassis.turnToAngle() used to run in a loop
+//A positive angle will turn right
+public class TurnToAngle extends Move {
+
+    //Prints the debug output every this many steps, about every 0.5 s
+    private static final int DEBUG_STEPS = 25;
+
+    private final double goal;
+    private final double aError;
+    private final double kp;
+    private final double max;
+    private final boolean debug;
+
+    private double error;
+    private int steps;
+
+    /**
+     * @param goal the angle to turn to
+     * @param aPer how close to the goal is close enough, as a fraction of goal
+     * @param kp the proportional gain
+     * @param max the fastest speed
+     * @param debug prints input, error and angle
+     */
+    public TurnToAngle(double goal, double aPer, double kp, double max, boolean debug){
+        super("Turn " + goal);
+        this.goal = goal;
+        this.aError = goal*aPer;
+        this.kp = kp;
+        this.max = max;
+        this.debug = debug;
+        this.error = goal;
+    }
+
+    @Override
+    protected boolean update(){
+        double angl = Chassis.gyro.getAngle();
+        error = goal-angl;
+        double input = OI.normalize(error*kp, -max, max);
+
+        if(error <= aError){
+            Chassis.driveSpd(0.0, 0.0);
+            System.out.println("YOINK, ya made it");
+            return true;
+        }
+
+        Chassis.driveSpd(input, -input);
+
+        if(debug && steps++ % DEBUG_STEPS == 0){
+            System.out.println("Input: " + input);
+            System.out.println("Error: " + error);
+            System.out.println("Angle: " + angl);
+        }
+        return false;
+    }
+
+    @Override
+    protected void end(){
+        Chassis.driveSpd(0.0, 0.0);
+    }
+
+    @Override
+    public double getProgress(){
+        if(goal == 0) return isDone() ? 1 : 0;
+        return OI.normalize(1 - error/goal, 0, 1);
+    }
+}
@@ -0,0 +1,99 @@
+package frc.diagnostics;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * A motor for the tests whose values change on every read and whose fault bit comes and goes, like
+ * the benchmarks' SyntheticMotor without the read latency.  It counts its reads.
+ */
+class FakeMotor implements MotorTelemetrySource {
+
+    private final String name;
+    private final String shortName;
+    private long reads;
+
+    FakeMotor(int index) {
+        name = "Fake " + index;
+        shortName = "F" + index;
+    }
+
+    static FakeMotor[] create(int count) {
+        FakeMotor[] motors = new FakeMotor[count];
+        for (int i = 0; i < count; i++) {
+            motors[i] = new FakeMotor(i);
+        }
+        return motors;
+    }
+
+    /* a MotorUpdate displaying every MotorDataType of the motors, on a NetworkTableInstance of its own */
+    static MotorUpdate newMotorUpdate(FakeMotor... motors) {
+        NetworkTableInstance nt = NetworkTableInstance.create();
+        Map<String, Map<MotorDataType, NetworkTableEntry>> entries = new HashMap<>();
+        for (FakeMotor motor : motors) {
+            Map<MotorDataType, NetworkTableEntry> motorEntries = new EnumMap<>(MotorDataType.class);
+            for (MotorDataType type : MotorDataType.values()) {
+                motorEntries.put(type, nt.getEntry("/Test/" + motor.getName() + "/" + type.getLabel()));
+            }
+            entries.put(motor.getName(), motorEntries);
+        }
+        return new MotorUpdate(entries, Arrays.asList(motors), nt.getEntry("/Test/Faults"), MotorDataType.values());
+    }
+
+    /* the number of values read so far */
+    long getReads() {
+        return reads;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getShortName() {
+        return shortName;
+    }
+
+    @Override
+    public short getFaults() {
+        return (short) ((++reads / 50) % 2 == 1 ? 1 : 0);
+    }
+
+    @Override
+    public short getStickyFaults() {
+        reads++;
+        return 1;
+    }
+
+    @Override
+    public double getMotorTemperature() {
+        return 30 + (++reads % 100) * 0.1;
+    }
+
+    @Override
+    public double getPosition() {
+        return ++reads * 0.01;
+    }
+
+    @Override
+    public double getVelocity() {
+        return (++reads % 50) * 2.0;
+    }
+
+    @Override
+    public boolean getInverted() {
+        reads++;
+        return false;
+    }
+
+    @Override
+    public int getPowerChannel() {
+        return -1;
+    }
+}
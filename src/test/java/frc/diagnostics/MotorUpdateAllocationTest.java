@@ -0,0 +1,59 @@
+package frc.diagnostics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Checks that a steady state MotorUpdate refresh doesn't allocate, with fake motors whose values
+ * change on every read and whose fault bit comes and goes.
+ */
+public class MotorUpdateAllocationTest {
+
+    private static final int MOTORS = 8;
+    /* enough refreshes for the fault text cache to fill and the JIT to settle */
+    private static final int WARMUP = 20_000;
+    private static final int REFRESHES = 1_000;
+
+    @BeforeClass
+    public static void initHal() {
+        HAL.initialize(500, 0);
+    }
+
+    /* looked up once, ManagementFactory.getThreadMXBean() allocates */
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long threadId = Thread.currentThread().getId();
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(threadId);
+    }
+
+    @Test
+    public void steadyStateRefreshDoesNotAllocate() {
+        assertTrue("thread allocation counting isn't supported by this JVM", threads.isThreadAllocatedMemorySupported());
+
+        MotorUpdate motorUpdate = FakeMotor.newMotorUpdate(FakeMotor.create(MOTORS));
+        for (int i = 0; i < WARMUP; i++) {
+            motorUpdate.updateStatus();
+        }
+        // the first calls can allocate themselves, and the measurement itself must not
+        allocatedBytes();
+        allocatedBytes();
+        assertEquals("bytes allocated by the measurement", allocatedBytes(), allocatedBytes());
+
+        long before = allocatedBytes();
+        for (int i = 0; i < REFRESHES; i++) {
+            motorUpdate.updateStatus();
+        }
+        long after = allocatedBytes();
+
+        assertEquals("bytes allocated by " + REFRESHES + " refreshes", before, after);
+    }
+}
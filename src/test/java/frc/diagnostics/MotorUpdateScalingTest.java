@@ -0,0 +1,84 @@
+package frc.diagnostics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Checks that a MotorUpdate refresh costs the same per motor with 8 motors as with 128, the check
+ * that goes with MotorScalingBenchmark.  The reads per motor have to be equal; the time per motor
+ * only has to stay within TIME_RATIO, the best of several batches, so a busy machine doesn't fail it.
+ */
+public class MotorUpdateScalingTest {
+
+    private static final int FEW = 8;
+    private static final int MANY = 128;
+    private static final int WARMUP = 20_000;
+    private static final int BATCHES = 10;
+    private static final int BATCH_MOTOR_REFRESHES = 64_000;
+    /* how much slower per motor the refresh of MANY may be than that of FEW */
+    private static final double TIME_RATIO = 3.0;
+
+    @BeforeClass
+    public static void initHal() {
+        HAL.initialize(500, 0);
+    }
+
+    /* the values read per motor by one refresh */
+    private static double readsPerMotor(int count) {
+        FakeMotor[] motors = FakeMotor.create(count);
+        MotorUpdate motorUpdate = FakeMotor.newMotorUpdate(motors);
+        // INVERTED_STATE is only read by the first refresh
+        motorUpdate.updateStatus();
+
+        long before = totalReads(motors);
+        motorUpdate.updateStatus();
+        return (double) (totalReads(motors) - before) / count;
+    }
+
+    private static long totalReads(FakeMotor[] motors) {
+        long reads = 0;
+        for (FakeMotor motor : motors) {
+            reads += motor.getReads();
+        }
+        return reads;
+    }
+
+    /* the best time per motor of one refresh, over BATCHES batches */
+    private static double nanosPerMotor(int count) {
+        MotorUpdate motorUpdate = FakeMotor.newMotorUpdate(FakeMotor.create(count));
+        for (int i = 0; i < WARMUP; i++) {
+            motorUpdate.updateStatus();
+        }
+
+        int refreshes = BATCH_MOTOR_REFRESHES / count;
+        long best = Long.MAX_VALUE;
+        for (int b = 0; b < BATCHES; b++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < refreshes; i++) {
+                motorUpdate.updateStatus();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return (double) best / refreshes / count;
+    }
+
+    @Test
+    public void readsPerMotorDontDependOnMotorCount() {
+        double few = readsPerMotor(FEW);
+        assertTrue("a refresh reads nothing", few > 0);
+        assertEquals("reads per motor with " + MANY + " motors", few, readsPerMotor(MANY), 0);
+    }
+
+    @Test
+    public void refreshTimeScalesWithMotorCount() {
+        double few = nanosPerMotor(FEW);
+        double many = nanosPerMotor(MANY);
+        assertTrue(String.format("%.0f ns per motor with %d motors, %.0f ns with %d", many, MANY, few, FEW),
+            many <= few * TIME_RATIO);
+    }
+}
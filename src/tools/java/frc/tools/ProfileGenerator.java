@@ -0,0 +1,113 @@
+package frc.tools;
+
+import java.io.File;
+import java.io.IOException;
+
+import frc.helpers.MotionProfile;
+import frc.helpers.MotionProfiles;
+
+/**
+ * ProfileGenerator writes the trapezoidal motion profiles the autonomous moves follow to
+ * src/main/deploy/profiles, so the roboRIO never does profile math.  It only needs the JDK; run
+ * it with ./gradlew generateProfiles after changing the table below and commit the output.
+ * Drive profiles are in drive units (meters with Chassis.setFactor(0.048)), turn profiles in degrees.
+ */
+public final class ProfileGenerator {
+
+    /* one sample per robot loop */
+    private static final float DT = 0.02f;
+
+    /*
+     * distance, max velocity (units/s), max acceleration (units/s^2)
+     * kV * maxVel + kA * maxAccel has to stay under the max output in Robot, or the feedforward
+     * alone is clamped: 0.25 * 0.8 + 0.02 * 2.0 = 0.24 against kDriveMax 0.25
+     */
+    private static final double[][] DRIVES = {
+        { 0.5, 0.8, 2.0 },
+        { 1.0, 0.8, 2.0 },
+        { 2.0, 0.8, 2.0 },
+        { 3.0, 0.8, 2.0 },
+        { -1.0, 0.8, 2.0 },
+    };
+
+    /*
+     * angle, max velocity (deg/s), max acceleration (deg/s^2)
+     * 0.0015 * 140 + 0.0001 * 360 = 0.246 against kTurnMax 0.25
+     */
+    private static final double[][] TURNS = {
+        { 45, 140, 360 },
+        { 90, 140, 360 },
+        { 180, 140, 360 },
+        { -45, 140, 360 },
+        { -90, 140, 360 },
+    };
+
+    private ProfileGenerator() {}
+
+    public static void main(String[] args) throws IOException {
+        File dir = new File(args.length > 0 ? args[0] : "src/main/deploy/profiles");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("can't create " + dir);
+        }
+
+        for (double[] d : DRIVES) {
+            write(new File(dir, MotionProfiles.driveName(d[0]) + MotionProfile.EXTENSION), d[0], d[1], d[2]);
+        }
+        for (double[] t : TURNS) {
+            write(new File(dir, MotionProfiles.turnName(t[0]) + MotionProfile.EXTENSION), t[0], t[1], t[2]);
+        }
+    }
+
+    /* samples a trapezoidal profile from 0 to distance every DT, ending exactly at distance */
+    private static void write(File file, double distance, double maxVel, double maxAccel) throws IOException {
+        double sign = Math.signum(distance);
+        double d = Math.abs(distance);
+
+        // triangular if it can't reach maxVel before it has to slow down
+        double accelTime = maxVel / maxAccel;
+        double cruiseVel = maxVel;
+        if (accelTime * maxVel > d) {
+            accelTime = Math.sqrt(d / maxAccel);
+            cruiseVel = accelTime * maxAccel;
+        }
+        double accelDist = 0.5 * maxAccel * accelTime * accelTime;
+        double cruiseTime = cruiseVel > 0 ? (d - 2 * accelDist) / cruiseVel : 0;
+        double total = 2 * accelTime + cruiseTime;
+
+        // DT isn't exact as a float, don't let that add a sample
+        int size = (int) Math.ceil(total / DT - 1e-4) + 1;
+        float[] position = new float[size];
+        float[] velocity = new float[size];
+        float[] acceleration = new float[size];
+        for (int i = 0; i < size; i++) {
+            double t = Math.min(i * DT, total);
+            double p;
+            double v;
+            double a;
+            if (t < accelTime) {
+                p = 0.5 * maxAccel * t * t;
+                v = maxAccel * t;
+                a = maxAccel;
+            } else if (t < accelTime + cruiseTime) {
+                p = accelDist + cruiseVel * (t - accelTime);
+                v = cruiseVel;
+                a = 0;
+            } else if (t < total) {
+                double r = total - t;
+                p = d - 0.5 * maxAccel * r * r;
+                v = maxAccel * r;
+                a = -maxAccel;
+            } else {
+                p = d;
+                v = 0;
+                a = 0;
+            }
+            position[i] = (float) (sign * p);
+            velocity[i] = (float) (sign * v);
+            acceleration[i] = (float) (sign * a);
+        }
+
+        MotionProfile.write(file, DT, position, velocity, acceleration);
+        System.out.printf("%s: %d samples, %.2f s%n", file.getName(), size, total);
+    }
+}